@@ -3,6 +3,7 @@ package com.rita.community;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Spring Boot 启动类
@@ -13,6 +14,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  */
 @MapperScan("com.rita.community.mapper")   // 扫描 Mapper 接口包
 @SpringBootApplication
+@EnableScheduling                          // 技能目录快照等后台刷新任务
 public class BackendApplication {
 
     public static void main(String[] args) {
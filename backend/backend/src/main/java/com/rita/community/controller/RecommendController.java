@@ -3,12 +3,15 @@ package com.rita.community.controller;
 import com.rita.community.common.Result;
 import com.rita.community.dto.RecommendPageResp;
 import com.rita.community.service.RecommendService;
+import com.rita.community.util.ConditionalGet;
 import com.rita.community.util.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * RecommendController
@@ -23,13 +26,25 @@ public class RecommendController {
         this.recommendService = recommendService;
     }
 
+    /**
+     * 游客请求支持条件请求：ETag 取预计算游客榜单的版本加游标，榜单未重建出新内容时直接 304。
+     * 登录用户的结果随兴趣画像实时变化，不做条件请求。
+     */
     @GetMapping
     public Result<RecommendPageResp> recommend(
             @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") Integer size,
-            HttpServletRequest request
+            HttpServletRequest request,
+            WebRequest webRequest,
+            HttpServletResponse response
     ) {
         Long userId = getOptionalUserId(request);
+        if (userId == null) {
+            String tag = "g-" + recommendService.guestFeedTag() + "-" + size + "-" + ConditionalGet.digest(cursor);
+            if (ConditionalGet.notModified(webRequest, response, tag)) {
+                return null;
+            }
+        }
         return Result.ok(recommendService.recommend(userId, cursor, size));
     }
 
@@ -1,35 +1,53 @@
 package com.rita.community.controller;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.rita.community.common.Result;
 import com.rita.community.dto.SkillCreateReq;
 import com.rita.community.dto.SkillDetailResp;
+import com.rita.community.dto.SkillFacetResp;
 import com.rita.community.dto.SkillListItemResp;
+import com.rita.community.dto.SkillScrollResp;
 import com.rita.community.dto.SkillUpdateReq;
 import com.rita.community.entity.Skill;
 import com.rita.community.entity.UserEvent;
 import com.rita.community.entity.User;
+import com.rita.community.mapper.SkillMapper;
 import com.rita.community.mapper.UserEventMapper;
 import com.rita.community.mapper.UserMapper;
 import com.rita.community.service.CacheService;
+import com.rita.community.service.InterestProfileService;
+import com.rita.community.service.SearchSuggestService;
+import com.rita.community.service.SideEffectService;
 import com.rita.community.service.SkillService;
+import com.rita.community.service.SkillViewCounter;
+import com.rita.community.service.UniqueViewerService;
+import com.rita.community.util.ClientAddress;
+import com.rita.community.util.ConditionalGet;
+import com.rita.community.util.GeoHash;
 import com.rita.community.util.JwtUtil;
+import com.rita.community.util.TextSnippet;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Value;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 /**
  * SkillController
@@ -44,6 +62,16 @@ public class SkillController {
     private final UserMapper userMapper;
     private final UserEventMapper userEventMapper;
     private final CacheService cacheService;
+    private final InterestProfileService interestProfileService;
+    private final SearchSuggestService searchSuggestService;
+    private final SideEffectService sideEffectService;
+    private final SkillViewCounter skillViewCounter;
+    private final UniqueViewerService uniqueViewerService;
+
+    private static final double MAX_NEARBY_RADIUS_KM = 50.0;
+    private static final long MAX_NEARBY_PAGE_SIZE = 100;
+    private static final int MAX_SCROLL_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_IDS = 100;
 
     @Value("${app.cache.skill-detail-ttl-seconds:600}")
     private int skillDetailTtl;
@@ -51,11 +79,21 @@ public class SkillController {
     public SkillController(SkillService skillService,
                            UserMapper userMapper,
                            UserEventMapper userEventMapper,
-                           CacheService cacheService) {
+                           CacheService cacheService,
+                           InterestProfileService interestProfileService,
+                           SearchSuggestService searchSuggestService,
+                           SideEffectService sideEffectService,
+                           SkillViewCounter skillViewCounter,
+                           UniqueViewerService uniqueViewerService) {
         this.skillService = skillService;
         this.userMapper = userMapper;
         this.userEventMapper = userEventMapper;
         this.cacheService = cacheService;
+        this.interestProfileService = interestProfileService;
+        this.searchSuggestService = searchSuggestService;
+        this.sideEffectService = sideEffectService;
+        this.skillViewCounter = skillViewCounter;
+        this.uniqueViewerService = uniqueViewerService;
     }
 
     private Long getCurrentUserId(HttpServletRequest request) {
@@ -96,41 +134,267 @@ public class SkillController {
         }
     }
 
+    /**
+     * 列表页支持条件请求：ETag 取列表缓存代号（分类下任何写操作都会让它 +1）、卖家资料代号（信用分变化时 +1）加查询参数，
+     * 未变化时只读两次代号就返回 304，不查库、不组装、不序列化。
+     */
     @GetMapping
     public Result<IPage<SkillListItemResp>> page(
             @RequestParam(defaultValue = "1") long page,
             @RequestParam(defaultValue = "10") long size,
             @RequestParam(required = false) String keyword,
-            @RequestParam(required = false) String category
+            @RequestParam(required = false) String category,
+            WebRequest webRequest,
+            HttpServletResponse response
     ) {
+        long gen = cacheService.getSkillListGeneration(category == null || category.isBlank() ? null : category);
+        // 卡片带卖家昵称和信用分，卖家资料变化同样要让 ETag 失效
+        long sellerGen = cacheService.getSellerGeneration();
+        String tag = "l-" + gen + "." + sellerGen + "-" + page + "-" + size + "-" + ConditionalGet.digest(keyword, category);
+        if (ConditionalGet.notModified(webRequest, response, tag)) {
+            return null;
+        }
+
         IPage<Skill> data = skillService.page(new Page<>(page, size), keyword, category);
         Page<SkillListItemResp> resultPage = new Page<>(data.getCurrent(), data.getSize(), data.getTotal());
         resultPage.setRecords(toListResp(data.getRecords()));
         return Result.ok(resultPage);
     }
 
-    @GetMapping("/{id}")
-    public Result<SkillDetailResp> detail(@PathVariable Long id, HttpServletRequest request) {
-        // 浏览量统计（Redis 自增，满足阈值时懒回写 MySQL）
-        skillService.increaseViewCount(id);
+    /**
+     * 搜索联想：输入框每次按键都会调用，完全走内存前缀树。
+     */
+    @GetMapping("/suggest")
+    public Result<List<String>> suggest(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        if (prefix == null || prefix.isBlank()) {
+            return Result.ok(List.of());
+        }
+        return Result.ok(searchSuggestService.suggest(prefix, limit));
+    }
 
-        Long userId = getOptionalUserId(request);
-        if (userId != null) {
-            recordUserEvent(userId, "view", id, null);
+    /**
+     * 分类分面：上架技能总数和各分类数量，供分类侧边栏使用，不查库做 GROUP BY。
+     */
+    @GetMapping("/facets")
+    public Result<SkillFacetResp> facets() {
+        Map<String, Long> counts = skillService.categoryCounts();
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+
+        SkillFacetResp resp = new SkillFacetResp();
+        long total = 0L;
+        for (Map.Entry<String, Long> e : entries) {
+            total += e.getValue();
+            // 未分类的技能只计入总数
+            if (!e.getKey().isEmpty() && e.getValue() > 0) {
+                resp.getCategories().put(e.getKey(), e.getValue());
+            }
         }
+        resp.setTotal(total);
+        return Result.ok(resp);
+    }
 
-        SkillDetailResp cached = cacheService.getSkillDetail(id, SkillDetailResp.class);
-        if (cached != null) {
-            cached.setViewCount(combineViewCount(cached.getViewCount(), id));
-            return Result.ok(cached);
+    /**
+     * 游标翻页：按发布时间倒序，返回 nextCursor 而不返回总数，深页不再随 OFFSET 变慢。
+     * cursor 取上一页返回的 nextCursor，首页不传；需要页码和总数的场景继续用 GET /api/skills。
+     */
+    @GetMapping("/scroll")
+    public Result<SkillScrollResp> scroll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String category
+    ) {
+        LocalDateTime createdBefore = null;
+        Long idBefore = null;
+        if (cursor != null && !cursor.isBlank()) {
+            int sep = cursor.lastIndexOf('|');
+            try {
+                createdBefore = LocalDateTime.parse(cursor.substring(0, sep));
+                idBefore = Long.parseLong(cursor.substring(sep + 1));
+            } catch (Exception e) {
+                return Result.fail("Invalid cursor");
+            }
+        }
+        int limit = Math.max(1, Math.min(size, MAX_SCROLL_PAGE_SIZE));
+        // 多取一条判断是否还有下一页
+        List<Skill> skills = skillService.scroll(createdBefore, idBefore, limit + 1, category);
+
+        SkillScrollResp resp = new SkillScrollResp();
+        if (skills.size() > limit) {
+            skills = skills.subList(0, limit);
+            Skill last = skills.get(limit - 1);
+            resp.setNextCursor(last.getCreatedAt() + "|" + last.getId());
         }
+        resp.setItems(toListResp(skills));
+        return Result.ok(resp);
+    }
 
-        Skill skill = skillService.getById(id);
-        if (skill == null) {
+    /**
+     * 附近技能：按距离由近到远，半径上限 50km，每条带 distanceKm。
+     */
+    @GetMapping("/nearby")
+    public Result<IPage<SkillListItemResp>> nearby(
+            @RequestParam double lng,
+            @RequestParam double lat,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(defaultValue = "1") long page,
+            @RequestParam(defaultValue = "20") long size,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String category
+    ) {
+        if (!GeoHash.isValid(lat, lng)) {
+            return Result.fail("Invalid lng/lat");
+        }
+        if (!(radiusKm > 0)) {
+            return Result.fail("radiusKm must be positive");
+        }
+        double radius = Math.min(radiusKm, MAX_NEARBY_RADIUS_KM);
+        Page<Skill> query = new Page<>(Math.max(1, page), Math.max(1, Math.min(size, MAX_NEARBY_PAGE_SIZE)));
+        IPage<Skill> data = skillService.nearby(query, lng, lat, radius, keyword, category);
+
+        List<SkillListItemResp> records = toListResp(data.getRecords());
+        for (SkillListItemResp item : records) {
+            if (item.getLat() == null || item.getLng() == null) continue;
+            double distance = GeoHash.distanceKm(lat, lng, item.getLat().doubleValue(), item.getLng().doubleValue());
+            item.setDistanceKm(Math.round(distance * 1000.0) / 1000.0);
+        }
+        Page<SkillListItemResp> resultPage = new Page<>(data.getCurrent(), data.getSize(), data.getTotal());
+        resultPage.setRecords(records);
+        return Result.ok(resultPage);
+    }
+
+    /**
+     * 详情支持条件请求：ETag 由缓存里的详情算出（更新时间、状态、卖家信息），304 时省掉计数叠加和序列化。
+     * 浏览量照常计入，条件请求同样是一次打开详情。
+     */
+    @GetMapping("/{id}")
+    public Result<SkillDetailResp> detail(@PathVariable Long id, HttpServletRequest request,
+                                          WebRequest webRequest, HttpServletResponse response) {
+        // 布隆过滤器判定不存在的 id（爬虫、失效链接）直接拒绝，不查库、不计浏览量、不记行为
+        if (!skillService.mightExist(id)) {
+            return Result.fail("Skill not found");
+        }
+
+        // 缓存未命中时同一技能只有一个请求回源，其余并发请求等它写回的结果；不存在的技能会被短期负缓存
+        SkillDetailResp detail = cacheService.getOrLoadSkillDetail(id, SkillDetailResp.class, () -> {
+            Skill skill = skillService.getById(id);
+            if (skill == null) return null;
+            User seller = userMapper.selectById(skill.getUserId());
+            return toDetailResp(skill, seller);
+        }, skillDetailTtl);
+        if (detail == null) {
             return Result.fail("Skill not found");
         }
-        User seller = userMapper.selectById(skill.getUserId());
 
+        // 已下架的技能仍可查看（如卖家自己），但不计浏览量、不记行为
+        if (Integer.valueOf(1).equals(detail.getStatus())) {
+            // 浏览量只在本节点内存里 +1（定时刷到 Redis，再批量回写 MySQL），比交给副作用队列还便宜，直接同步计
+            skillService.increaseViewCount(id);
+
+            Long userId = getOptionalUserId(request);
+            // 去重访客：同一人反复刷新只算一次，本节点内存去重后定时写入 HyperLogLog
+            uniqueViewerService.recordView(id, viewerKey(userId, request));
+            if (userId != null) {
+                // 行为日志可丢：队列满说明下游已过载，优先保住详情响应
+                sideEffectService.offer("view_event", () -> recordUserEvent(userId, "view", id, null));
+            }
+        }
+
+        if (ConditionalGet.notModified(webRequest, response, detailTag(detail))) {
+            return null;
+        }
+
+        SkillDetailResp resp = copyOf(detail);
+        resp.setViewCount(combineViewCount(detail.getViewCount(), id));
+        resp.setUniqueViewers(uniqueViewerService.uniqueViewers(id));
+        return Result.ok(resp);
+    }
+
+    /**
+     * 批量取技能卡片（收藏、浏览历史、聊天里的技能卡），按传入顺序返回，不存在的 id 跳过并按短 TTL 负缓存。
+     * 详情缓存一次 MGET，未命中的技能和卖家各一次 selectBatchIds；不计浏览量、不记行为。
+     */
+    @GetMapping("/batch")
+    public Result<List<SkillDetailResp>> batch(@RequestParam List<Long> ids) {
+        Set<Long> unique = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null) unique.add(id);
+        }
+        if (unique.size() > MAX_BATCH_IDS) {
+            return Result.fail("At most " + MAX_BATCH_IDS + " ids");
+        }
+        unique.removeIf((id) -> !skillService.mightExist(id));
+        if (unique.isEmpty()) {
+            return Result.ok(List.of());
+        }
+
+        Map<Long, SkillDetailResp> details = cacheService.getSkillDetails(unique, SkillDetailResp.class);
+        List<Long> missing = new ArrayList<>();
+        for (Long id : unique) {
+            if (!details.containsKey(id)) missing.add(id);
+        }
+        if (!missing.isEmpty()) {
+            List<Skill> skills = skillService.listByIds(missing);
+            Set<Long> sellerIds = new HashSet<>();
+            for (Skill skill : skills) {
+                if (skill.getUserId() != null) sellerIds.add(skill.getUserId());
+            }
+            Map<Long, User> sellers = new HashMap<>();
+            if (!sellerIds.isEmpty()) {
+                for (User user : userMapper.selectBatchIds(sellerIds)) {
+                    sellers.put(user.getId(), user);
+                }
+            }
+            Map<Long, SkillDetailResp> loaded = new HashMap<>();
+            for (Skill skill : skills) {
+                loaded.put(skill.getId(), toDetailResp(skill, sellers.get(skill.getUserId())));
+            }
+            cacheService.putSkillDetails(loaded, skillDetailTtl);
+            // 没查到的 id 负缓存，下次批量请求不再回库
+            List<Long> absent = new ArrayList<>();
+            for (Long id : missing) {
+                if (!loaded.containsKey(id)) absent.add(id);
+            }
+            cacheService.putMissingSkillDetails(absent);
+            details.putAll(loaded);
+        }
+
+        details.values().removeIf(Objects::isNull);
+        Map<Long, Long> pendingViews = cacheService.getSkillViews(details.keySet());
+        List<SkillDetailResp> result = new ArrayList<>(details.size());
+        for (Long id : unique) {
+            SkillDetailResp detail = details.get(id);
+            if (detail == null) continue;
+            SkillDetailResp resp = copyOf(detail);
+            resp.setViewCount(combineViewCount(detail.getViewCount(), pendingViews.get(id), id));
+            resp.setUniqueViewers(uniqueViewerService.uniqueViewers(id));
+            result.add(resp);
+        }
+        return Result.ok(result);
+    }
+
+    /**
+     * 详情 ETag：更新时间 + 状态 + 卖家版本（缓存里的卖家昵称与信用分）。计数不参与。
+     */
+    private String detailTag(SkillDetailResp detail) {
+        long updated = detail.getUpdatedAt() == null ? 0L : detail.getUpdatedAt().toEpochSecond(ZoneOffset.UTC);
+        return "d-" + detail.getId() + "-" + updated + "-" + detail.getStatus() + "-"
+                + ConditionalGet.digest(detail.getSellerNickname(), detail.getSellerCreditScore());
+    }
+
+    /**
+     * 缓存里的详情是共享实例（进程内 L1），叠加实时浏览量前先拷贝一份。
+     */
+    private SkillDetailResp copyOf(SkillDetailResp source) {
+        SkillDetailResp copy = new SkillDetailResp();
+        BeanUtils.copyProperties(source, copy);
+        return copy;
+    }
+
+    private SkillDetailResp toDetailResp(Skill skill, User seller) {
         SkillDetailResp resp = new SkillDetailResp();
         resp.setId(skill.getId());
         resp.setUserId(skill.getUserId());
@@ -150,20 +414,20 @@ public class SkillController {
         resp.setViewCount(skill.getViewCount());
         resp.setSellerNickname(seller == null ? "User" : seller.getNickname());
         resp.setSellerCreditScore(seller == null ? 0 : seller.getCreditScore());
-
-        cacheService.putSkillDetail(id, resp, skillDetailTtl);
-        resp.setViewCount(combineViewCount(resp.getViewCount(), id));
-        return Result.ok(resp);
+        return resp;
     }
 
     /**
-     * DB 浏览量是懒回写的，实时值 = DB 基线 + Redis 自增尾数。
+     * DB 浏览量是定时批量回写的，实时值 = DB 基线 + Redis 里尚未回写的增量 + 本节点还没刷到 Redis 的计数。
      */
     private Integer combineViewCount(Integer dbViewCount, Long skillId) {
-        int base = dbViewCount == null ? 0 : dbViewCount;
-        Long pending = cacheService.getSkillView(skillId);
-        if (pending == null) return base;
-        return base + (int) (pending % 10);
+        return combineViewCount(dbViewCount, cacheService.getSkillView(skillId), skillId);
+    }
+
+    private Integer combineViewCount(Integer dbViewCount, Long redisPending, Long skillId) {
+        long total = dbViewCount == null ? 0L : dbViewCount;
+        if (redisPending != null) total += redisPending;
+        return (int) (total + skillViewCounter.localPending(skillId));
     }
 
     @GetMapping("/mine")
@@ -246,7 +510,10 @@ public class SkillController {
 
         Map<Long, User> userMap = new HashMap<>();
         if (!userIds.isEmpty()) {
-            for (User user : userMapper.selectBatchIds(userIds)) {
+            // 卡片只展示卖家昵称和信用分
+            for (User user : userMapper.selectList(new LambdaQueryWrapper<User>()
+                    .select(User::getId, User::getNickname, User::getCreditScore)
+                    .in(User::getId, userIds))) {
                 userMap.put(user.getId(), user);
             }
         }
@@ -257,7 +524,7 @@ public class SkillController {
             item.setId(skill.getId());
             item.setUserId(skill.getUserId());
             item.setTitle(skill.getTitle());
-            item.setDescription(skill.getDescription());
+            item.setDescription(TextSnippet.of(skill.getDescription(), SkillMapper.DESCRIPTION_SNIPPET_LENGTH));
             item.setCategory(skill.getCategory());
             item.setPrice(skill.getPrice());
             item.setStatus(skill.getStatus());
@@ -270,6 +537,7 @@ public class SkillController {
             item.setAdcode(skill.getAdcode());
             item.setCityName(skill.getCityName());
             item.setViewCount(skill.getViewCount());
+            item.setUniqueViewers(uniqueViewerService.uniqueViewers(skill.getId()));
             item.setSellerNickname(seller == null ? "User" : seller.getNickname());
             item.setSellerCreditScore(seller == null ? 0 : seller.getCreditScore());
             records.add(item);
@@ -291,6 +559,18 @@ public class SkillController {
         return Result.fail("操作失败，请稍后重试");
     }
 
+    /**
+     * 去重访客标识：登录用户按用户 id；游客按客户端 IP（X-Real-IP 或 X-Forwarded-For 最后一跳，不认客户端可改的部分）。
+     * User-Agent 同样由客户端随意填写，不参与游客标识，否则换一个就多算一个访客。
+     */
+    private String viewerKey(Long userId, HttpServletRequest request) {
+        if (userId != null) {
+            return "u:" + userId;
+        }
+        return "a:" + ClientAddress.resolve(request.getHeader("X-Real-IP"),
+                request.getHeader("X-Forwarded-For"), request.getRemoteAddr());
+    }
+
     private Long getOptionalUserId(HttpServletRequest request) {
         String auth = request.getHeader("Authorization");
         if (auth == null || !auth.startsWith("Bearer ")) {
@@ -315,6 +595,7 @@ public class SkillController {
         event.setKeyword(keyword);
         event.setCreatedAt(LocalDateTime.now());
         userEventMapper.insert(event);
+        interestProfileService.recordEvent(userId, eventType, skillId, keyword);
     }
 }
 
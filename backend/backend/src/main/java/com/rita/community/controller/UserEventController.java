@@ -3,6 +3,8 @@ package com.rita.community.controller;
 import com.rita.community.common.Result;
 import com.rita.community.entity.UserEvent;
 import com.rita.community.mapper.UserEventMapper;
+import com.rita.community.service.InterestProfileService;
+import com.rita.community.service.SkillService;
 import com.rita.community.util.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -23,9 +25,14 @@ public class UserEventController {
     private static final Set<String> ALLOWED_TYPES = Set.of("view", "search", "favorite");
 
     private final UserEventMapper userEventMapper;
+    private final InterestProfileService interestProfileService;
+    private final SkillService skillService;
 
-    public UserEventController(UserEventMapper userEventMapper) {
+    public UserEventController(UserEventMapper userEventMapper, InterestProfileService interestProfileService,
+                               SkillService skillService) {
         this.userEventMapper = userEventMapper;
+        this.interestProfileService = interestProfileService;
+        this.skillService = skillService;
     }
 
     @PostMapping
@@ -40,14 +47,19 @@ public class UserEventController {
         }
         String keyword = req == null || req.getKeyword() == null ? null : req.getKeyword().trim();
         if (keyword != null && keyword.isEmpty()) keyword = null;
+        Long skillId = req == null ? null : req.getSkillId();
+        if (skillId != null && !skillService.mightExist(skillId)) {
+            return Result.fail("Skill not found");
+        }
 
         UserEvent event = new UserEvent();
         event.setUserId(userId);
         event.setEventType(eventType);
-        event.setSkillId(req == null ? null : req.getSkillId());
+        event.setSkillId(skillId);
         event.setKeyword(keyword);
         event.setCreatedAt(LocalDateTime.now());
         userEventMapper.insert(event);
+        interestProfileService.recordEvent(userId, eventType, event.getSkillId(), keyword);
         return Result.ok(true);
     }
 
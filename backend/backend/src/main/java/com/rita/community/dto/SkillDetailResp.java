@@ -27,6 +27,7 @@ public class SkillDetailResp {
     private String adcode;
     private String cityName;
     private Integer viewCount;
+    private Long uniqueViewers; // 最近几天的去重访客数（HyperLogLog 估计，定时统计）
 
     private String sellerNickname;
     private Integer sellerCreditScore;
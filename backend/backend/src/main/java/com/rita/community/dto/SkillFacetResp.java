@@ -0,0 +1,16 @@
+package com.rita.community.dto;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SkillFacetResp
+ * 作用：技能分类侧边栏数据，上架技能总数与各分类数量（按数量降序），数量为近似值。
+ */
+@Data
+public class SkillFacetResp {
+    private long total;
+    private Map<String, Long> categories = new LinkedHashMap<>();
+}
@@ -27,6 +27,8 @@ public class SkillListItemResp {
     private String adcode;
     private String cityName;
     private Integer viewCount;
+    private Long uniqueViewers; // 最近几天的去重访客数（HyperLogLog 估计，定时统计）
+    private Double distanceKm; // 仅附近查询返回
 
     private String sellerNickname;
     private Integer sellerCreditScore;
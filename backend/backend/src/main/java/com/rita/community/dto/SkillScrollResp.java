@@ -0,0 +1,16 @@
+package com.rita.community.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SkillScrollResp
+ * 作用：技能列表游标翻页的响应，只有当前页和下一页游标，不带总数；nextCursor 为空表示没有更多。
+ */
+@Data
+public class SkillScrollResp {
+    private List<SkillListItemResp> items = new ArrayList<>();
+    private String nextCursor;
+}
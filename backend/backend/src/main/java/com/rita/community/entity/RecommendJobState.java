@@ -0,0 +1,22 @@
+package com.rita.community.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * RecommendJobState
+ * 作用：数据库实体，与数据表字段一一映射，供 ORM 持久化使用。
+ * 记录推荐离线任务已处理到的 user_event 主键水位。
+ */
+@Data
+@TableName("recommend_job_state")
+public class RecommendJobState {
+    @TableId(value = "job_name", type = IdType.INPUT)
+    private String jobName;
+    private Long lastEventId;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,22 @@
+package com.rita.community.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * SkillCooccurrence
+ * 作用：数据库实体，与数据表字段一一映射，供 ORM 持久化使用。
+ * neighbors 为紧凑编码的近邻列表："技能id:共现次数,技能id:共现次数"，按次数降序，只保留前 N 个。
+ */
+@Data
+@TableName("skill_cooccurrence")
+public class SkillCooccurrence {
+    @TableId(value = "skill_id", type = IdType.INPUT)
+    private Long skillId;
+    private String neighbors;
+    private LocalDateTime updatedAt;
+}
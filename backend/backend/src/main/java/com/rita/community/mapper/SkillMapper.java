@@ -1,13 +1,54 @@
 package com.rita.community.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.rita.community.entity.Skill;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Map;
 
 /**
  * SkillMapper
  * 作用：数据访问接口，基于 MyBatis-Plus 读写数据库。
  */
 @Mapper
-public interface SkillMapper extends BaseMapper<Skill> {}
+public interface SkillMapper extends BaseMapper<Skill> {
+    /**
+     * 列表卡片展示的描述摘要长度（字符）。
+     */
+    int DESCRIPTION_SNIPPET_LENGTH = 80;
+
+    /**
+     * 列表查询的投影：description 只取前 DESCRIPTION_SNIPPET_LENGTH + 1 个字符（多一个用来判断是否被截断），
+     * 完整描述只在详情和 "我的技能" 里查。
+     */
+    String LIST_COLUMNS = "id, user_id, title, LEFT(description, " + (DESCRIPTION_SNIPPET_LENGTH + 1) + ") AS description,"
+            + " category, price, status, created_at, updated_at, image_url, lng, lat, address, adcode, city_name, view_count";
+
+    /**
+     * 全文检索上架技能（依赖 ft_skill_title_desc ngram 索引），按相关度降序、发布时间倒序分页。
+     * query 为 BOOLEAN MODE 表达式，由调用方负责转义。
+     */
+    @Select("<script>"
+            + "SELECT " + LIST_COLUMNS + " FROM skill"
+            + " WHERE status = 1 AND MATCH(title, description) AGAINST(#{query} IN BOOLEAN MODE)"
+            + "<if test='category != null'> AND category = #{category}</if>"
+            + " ORDER BY MATCH(title, description) AGAINST(#{query} IN BOOLEAN MODE) DESC, created_at DESC, id DESC"
+            + "</script>")
+    IPage<Skill> searchFulltext(IPage<Skill> page, @Param("query") String query, @Param("category") String category);
 
+    /**
+     * 一条 UPDATE 批量累加浏览量（技能 id -> 增量）。显式保留 updated_at，浏览量变化不算内容更新，
+     * 不会触发目录增量刷新。
+     */
+    @Update("<script>"
+            + "UPDATE skill SET updated_at = updated_at, view_count = IFNULL(view_count, 0) + CASE id"
+            + "<foreach collection='deltas' index='id' item='delta'> WHEN #{id} THEN #{delta}</foreach>"
+            + " ELSE 0 END WHERE id IN"
+            + "<foreach collection='deltas' index='id' item='delta' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int addViewCounts(@Param("deltas") Map<Long, Long> deltas);
+}
@@ -1,6 +1,12 @@
 package com.rita.community.service;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 /**
  * CacheService
@@ -31,12 +37,134 @@ public interface CacheService {
     void resetLoginFail(String phone);
     boolean isLoginLocked(String phone);
 
-    /* ============ 技能详情缓存 ============ */
+    /* ============ 技能详情缓存（进程内 L1 + Redis L2） ============ */
+    // 读到的详情对象可能是 L1 里的共享实例，调用方要改字段（如浏览量）时必须先拷贝
     <T> T getSkillDetail(Long skillId, Class<T> type);
+    /**
+     * 读详情缓存，未命中时调用 loader 回源并写回（loader 返回 null 表示不存在，按短 TTL 负缓存）。
+     * 同一技能的并发未命中只回源一次；临近过期时按概率提前刷新。
+     */
+    <T> T getOrLoadSkillDetail(Long skillId, Class<T> type, Supplier<T> loader, int ttlSeconds);
+    /**
+     * 一次 MGET 批量读取详情缓存，返回命中的部分；负缓存（已确认不存在）也算命中，值为 null，调用方用 containsKey 区分未命中。
+     */
+    <T> Map<Long, T> getSkillDetails(Collection<Long> skillIds, Class<T> type);
     void putSkillDetail(Long skillId, Object detail, int ttlSeconds);
+    /**
+     * 批量回填详情缓存，一次 pipeline 写入。
+     */
+    void putSkillDetails(Map<Long, ?> details, int ttlSeconds);
+    /**
+     * 批量回源后没查到的 id 按短 TTL 负缓存，与 getOrLoadSkillDetail 的负缓存一致。
+     */
+    void putMissingSkillDetails(Collection<Long> skillIds);
     void evictSkillDetail(Long skillId);
 
-    /* ============ 技能浏览量（Redis 计数，异步/懒回写） ============ */
-    long incrSkillView(Long skillId);
+    /* ============ 技能浏览量（Redis 计数 + 脏集合，定时批量回写） ============ */
+    /**
+     * 批量累加浏览量增量（技能 id -> 次数）并把这些技能标脏，一次 pipeline（INCRBY + SADD）。
+     * 也用于回写 DB 失败时把取出的增量加回去。
+     */
+    void incrSkillViews(Map<Long, Long> deltas);
+    /**
+     * 尚未回写 DB 的浏览量增量，展示时与 DB 里的 view_count 相加。
+     */
     Long getSkillView(Long skillId);
+    /**
+     * 一次 MGET 批量读取尚未回写的浏览量增量，没有记录的 id 不出现在结果里。
+     */
+    Map<Long, Long> getSkillViews(Collection<Long> skillIds);
+    /**
+     * 领取至多 limit 个待回写的技能 id（SPOP，多实例各领各的，不会重复回写）。
+     */
+    List<Long> claimDirtySkillViews(int limit);
+    /**
+     * 取出这些技能的浏览量增量并删除 key（GETDEL，一次 pipeline），只返回大于 0 的部分；清零后的新增浏览会重新标脏。
+     */
+    Map<Long, Long> takeSkillViews(Collection<Long> skillIds);
+    /**
+     * 执行 dbWrite（把 deltas 写进 DB），再用 addViews 把增量原地加到缓存里的详情上（代替驱逐），并通知各实例清 L1。
+     * dbWrite 抛出的异常原样抛给调用方；之后的缓存修正失败时退回驱逐，不再抛出。
+     */
+    <T> void applySkillDetailViews(Map<Long, Long> deltas, Class<T> type, BiConsumer<T, Long> addViews, Runnable dbWrite);
+
+    /* ============ 技能去重访客（HyperLogLog，按天分桶） ============ */
+    /**
+     * 把一批访客加进各技能 day 那天的 HLL（PFADD），并把这些技能记进当天的活跃集合；一次 pipeline。
+     */
+    void addSkillViewers(String day, Map<Long, ? extends Collection<String>> viewers, int ttlSeconds);
+    /**
+     * 这些天里有访客的技能 id（各天活跃集合的并集）。
+     */
+    Set<Long> getViewedSkills(Collection<String> days);
+    /**
+     * 各技能在这些天里的去重访客数：每个技能一条多 key PFCOUNT（即合并各天的 HLL 再估计），一次 pipeline。
+     */
+    Map<Long, Long> countSkillViewers(Collection<Long> skillIds, Collection<String> days);
+
+    /* ============ 兴趣画像（Hash 存权重 + List 存最近浏览，Lua 原子更新，无读-改-写） ============ */
+    /**
+     * @return 按半衰期衰减到当前时刻的画像；不存在时返回 null
+     */
+    InterestProfile getInterestProfile(Long userId, long halfLifeMs);
+    /**
+     * 在 Redis 里原子地计入一次行为：分类/关键词权重各 +1（已按衰减换算）、截断到 maxEntries，技能放到最近列表最前面。
+     * category、keyword、skillId 为空的维度跳过。
+     *
+     * @return 画像不存在时返回 false 且不做任何修改，调用方应先重建
+     */
+    boolean addInterestEvent(Long userId, String category, String keyword, Long skillId,
+                             long halfLifeMs, int maxEntries, int maxRecent, Duration ttl);
+    /**
+     * 重建结果只在画像不存在时写入，避免覆盖别的节点在此期间已计入的行为。
+     *
+     * @return 是否写入
+     */
+    boolean putInterestProfileIfAbsent(Long userId, InterestProfile profile, Duration ttl);
+
+    /* ============ 技能列表计数（分类分面 + 带关键词的总数） ============ */
+    /**
+     * @return 各分类的上架技能数（无分类记在 "" 下）；缓存不存在时返回 null
+     */
+    Map<String, Long> getSkillFacets();
+    void putSkillFacets(Map<String, Long> counts, int ttlSeconds);
+    /**
+     * 只在分面缓存存在时增减，缓存不存在时什么都不做，等下次读取时整体重建。
+     */
+    void incrSkillFacet(String category, long delta);
+    Long getSkillListTotal(String filterKey);
+    void putSkillListTotal(String filterKey, long total, int ttlSeconds);
+
+    /* ============ 技能列表结果缓存（按分类代号失效） ============ */
+    /**
+     * 分类的列表代号；category 为空时返回全局代号（不限分类的查询依赖它）。
+     */
+    long getSkillListGeneration(String category);
+    /**
+     * 分类下有写操作时调用：该分类和全局代号各 +1（没有分类时只 +1 全局代号），旧代号下缓存的页自然失效，不需要扫描删除。
+     */
+    void bumpSkillListGeneration(String category);
+    /**
+     * 卖家资料（昵称、信用分）代号：列表卡片里带着卖家资料，任何卖家资料变化都 +1，列表 ETag 依赖它。
+     */
+    long getSellerGeneration();
+    void bumpSellerGeneration();
+    <T> T getSkillListPage(String pageKey, Class<T> type);
+    void putSkillListPage(String pageKey, Object page, int ttlSeconds);
+
+    /* ============ 任务锁（多实例部署时保证后台任务只有一个节点在跑） ============ */
+    /**
+     * @return 加锁成功返回 true；锁到期自动释放，防止持有者宕机后死锁
+     */
+    boolean tryLock(String key, String owner, Duration ttl);
+    /**
+     * 持有者续期，长任务每处理一段调用一次。
+     *
+     * @return 锁仍归 owner 所有并已续期返回 true；已过期或被别人拿走返回 false，调用方应停止
+     */
+    boolean renewLock(String key, String owner, Duration ttl);
+    /**
+     * 只有持有者本人才能释放，避免锁过期后误删别人的锁。
+     */
+    void unlock(String key, String owner);
 }
@@ -0,0 +1,20 @@
+package com.rita.community.service;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * CooccurrenceService
+ * 作用：技能共现（看过的人还看了）接口。近邻列表由后台任务从 user_event 增量计算并落库，服务启动时加载到内存。
+ */
+public interface CooccurrenceService {
+    /**
+     * 汇总种子技能的近邻，按共现次数之和取前 limit 个，不含种子本身；结果按得分降序。
+     */
+    Set<Long> alsoViewed(Collection<Long> seedSkillIds, int limit);
+
+    /**
+     * 处理上次水位之后的新行为，更新近邻表与内存模型。
+     */
+    void runIncremental();
+}
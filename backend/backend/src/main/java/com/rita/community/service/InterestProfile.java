@@ -0,0 +1,113 @@
+package com.rita.community.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * InterestProfile
+ * 作用：用户兴趣画像，按类目和搜索关键词累计带时间衰减的权重，持久化在 Redis 中并随行为增量更新。
+ * 另外记录最近浏览/收藏过的技能，作为 "看过的人还看了" 召回的种子。
+ * 注意：会被本地缓存共享，修改前先 copy()。
+ */
+public class InterestProfile {
+    private HashMap<String, Double> categories = new HashMap<>();
+    private HashMap<String, Double> keywords = new HashMap<>();
+    private ArrayList<Long> recentSkills = new ArrayList<>(); // 最近的在前
+    private long updatedAt;
+
+    public Map<String, Double> getCategories() {
+        return categories;
+    }
+
+    public Map<String, Double> getKeywords() {
+        return keywords;
+    }
+
+    public List<Long> getRecentSkills() {
+        return recentSkills;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public InterestProfile copy() {
+        InterestProfile copy = new InterestProfile();
+        copy.categories = new HashMap<>(categories);
+        copy.keywords = new HashMap<>(keywords);
+        copy.recentSkills = new ArrayList<>(recentSkills);
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
+    /**
+     * 把所有权重按半衰期衰减到 nowMs 时刻。
+     */
+    public void decayTo(long nowMs, long halfLifeMs) {
+        if (updatedAt > 0 && nowMs > updatedAt && halfLifeMs > 0) {
+            double factor = Math.pow(0.5, (double) (nowMs - updatedAt) / (double) halfLifeMs);
+            categories.replaceAll((k, v) -> v * factor);
+            keywords.replaceAll((k, v) -> v * factor);
+        }
+        updatedAt = Math.max(updatedAt, nowMs);
+    }
+
+    public void addCategory(String category, double weight) {
+        categories.merge(category, weight, Double::sum);
+    }
+
+    public void addKeyword(String keyword, double weight) {
+        keywords.merge(keyword, weight, Double::sum);
+    }
+
+    /**
+     * 把技能放到最近列表的最前面，已存在则前移，超出 maxSize 的旧记录丢弃。
+     */
+    public void addRecentSkill(Long skillId, int maxSize) {
+        if (skillId == null) return;
+        recentSkills.remove(skillId);
+        recentSkills.add(0, skillId);
+        while (recentSkills.size() > maxSize) {
+            recentSkills.remove(recentSkills.size() - 1);
+        }
+    }
+
+    /**
+     * 每个维度只保留权重最高的 maxEntries 个，避免长期活跃用户的画像无限增长。
+     */
+    public void trim(int maxEntries) {
+        trimCounter(categories, maxEntries);
+        trimCounter(keywords, maxEntries);
+    }
+
+    public boolean hasInterest() {
+        return !categories.isEmpty() || !keywords.isEmpty();
+    }
+
+    public List<String> topCategories(int limit) {
+        return topKeys(categories, limit);
+    }
+
+    public List<String> topKeywords(int limit) {
+        return topKeys(keywords, limit);
+    }
+
+    private static List<String> topKeys(Map<String, Double> counter, int limit) {
+        return counter.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<String, Double>>comparingDouble(Map.Entry::getValue).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private static void trimCounter(HashMap<String, Double> counter, int maxEntries) {
+        if (counter.size() <= maxEntries) return;
+        List<String> keep = topKeys(counter, maxEntries);
+        counter.keySet().retainAll(keep);
+    }
+}
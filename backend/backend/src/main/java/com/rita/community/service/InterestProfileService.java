@@ -0,0 +1,17 @@
+package com.rita.community.service;
+
+/**
+ * InterestProfileService
+ * 作用：用户兴趣画像接口，行为发生时增量更新画像，推荐时直接读取画像而不是重新聚合行为表。
+ */
+public interface InterestProfileService {
+    /**
+     * 读取用户画像（本地缓存 → Redis → 从 user_event 重建），游客返回空画像。
+     */
+    InterestProfile getProfile(Long userId);
+
+    /**
+     * 行为已写入 user_event 后调用，把该行为计入画像；失败只记日志，不影响主流程。
+     */
+    void recordEvent(Long userId, String eventType, Long skillId, String keyword);
+}
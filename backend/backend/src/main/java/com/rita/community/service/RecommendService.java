@@ -8,6 +8,11 @@ import com.rita.community.dto.RecommendPageResp;
  */
 public interface RecommendService {
     RecommendPageResp recommend(Long userId, String cursor, Integer size);
+
+    /**
+     * 当前游客榜单的版本，榜单内容或目录变化时才会变；用于游客推荐页的条件请求。
+     */
+    String guestFeedTag();
 }
 
 
@@ -0,0 +1,19 @@
+package com.rita.community.service;
+
+import java.util.List;
+
+/**
+ * SearchSuggestService
+ * 作用：搜索联想接口。联想词来自 user_event 里记录的搜索关键词，后台定时汇总成内存前缀树，查询不访问数据库。
+ */
+public interface SearchSuggestService {
+    /**
+     * 以 prefix 开头的热门搜索词，按热度降序，最多 limit 条。
+     */
+    List<String> suggest(String prefix, int limit);
+
+    /**
+     * 重新汇总最近的搜索关键词并替换内存中的前缀树。
+     */
+    void rebuild();
+}
@@ -0,0 +1,153 @@
+package com.rita.community.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SearchSuggestionTrie
+ * 作用：搜索联想的前缀树，构建后只读。查询词按热度降序插入，每个节点沿途记下最先经过它的 topN 个查询，
+ * 即该前缀下最热的 topN 个，联想时只需沿前缀走到节点直接取出，耗时与前缀长度成正比，和词表大小无关。
+ * 子节点用有序 char 数组 + 二分查找存放，比每个节点一个 HashMap 省内存。
+ */
+public final class SearchSuggestionTrie {
+    private static final SearchSuggestionTrie EMPTY = new SearchSuggestionTrie(new String[0], new Node(new char[0], new Node[0], new int[0]));
+
+    private final String[] queries;
+    private final Node root;
+
+    private SearchSuggestionTrie(String[] queries, Node root) {
+        this.queries = queries;
+        this.root = root;
+    }
+
+    public static SearchSuggestionTrie empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param counts 查询词 -> 热度；词会先 normalize，归一后相同的词热度相加
+     * @param topN   每个前缀保留的联想条数
+     */
+    public static SearchSuggestionTrie build(Map<String, Long> counts, int topN) {
+        if (counts == null || counts.isEmpty() || topN <= 0) return EMPTY;
+        Map<String, Long> merged = new TreeMap<>();
+        for (Map.Entry<String, Long> e : counts.entrySet()) {
+            String query = normalize(e.getKey());
+            if (query.isEmpty() || e.getValue() == null) continue;
+            merged.merge(query, e.getValue(), Long::sum);
+        }
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>(merged.entrySet());
+        // 热度降序，相同热度按字典序，保证结果稳定
+        ranked.sort((a, b) -> {
+            int cmp = Long.compare(b.getValue(), a.getValue());
+            return cmp != 0 ? cmp : a.getKey().compareTo(b.getKey());
+        });
+
+        String[] queries = new String[ranked.size()];
+        BuildNode root = new BuildNode();
+        for (int i = 0; i < ranked.size(); i++) {
+            String query = ranked.get(i).getKey();
+            queries[i] = query;
+            BuildNode node = root;
+            node.offer(i, topN);
+            for (int c = 0; c < query.length(); c++) {
+                node = node.children.computeIfAbsent(query.charAt(c), (k) -> new BuildNode());
+                node.offer(i, topN);
+            }
+        }
+        return new SearchSuggestionTrie(queries, root.freeze());
+    }
+
+    /**
+     * 返回以 prefix（normalize 后）开头的最热的至多 limit 个查询，按热度降序。
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String p = normalize(prefix);
+        if (p.isEmpty() || limit <= 0) return Collections.emptyList();
+        Node node = root;
+        for (int i = 0; i < p.length() && node != null; i++) {
+            node = node.child(p.charAt(i));
+        }
+        if (node == null) return Collections.emptyList();
+        int n = Math.min(limit, node.top.length);
+        List<String> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(queries[node.top[i]]);
+        }
+        return result;
+    }
+
+    public int size() {
+        return queries.length;
+    }
+
+    /**
+     * trim、转小写、连续空白合并成一个空格。
+     */
+    public static String normalize(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+                continue;
+            }
+            if (space) {
+                sb.append(' ');
+                space = false;
+            }
+            sb.append(c);
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class BuildNode {
+        private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        private int[] top = new int[2];
+        private int topSize;
+
+        private void offer(int queryIndex, int topN) {
+            if (topSize >= topN) return;
+            if (topSize == top.length) {
+                top = Arrays.copyOf(top, Math.min(topN, top.length * 2));
+            }
+            top[topSize++] = queryIndex;
+        }
+
+        private Node freeze() {
+            char[] labels = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, BuildNode> e : children.entrySet()) {
+                labels[i] = e.getKey();
+                nodes[i] = e.getValue().freeze();
+                i++;
+            }
+            return new Node(labels, nodes, Arrays.copyOf(top, topSize));
+        }
+    }
+
+    private static final class Node {
+        private final char[] labels;
+        private final Node[] children;
+        private final int[] top;
+
+        private Node(char[] labels, Node[] children, int[] top) {
+            this.labels = labels;
+            this.children = children;
+            this.top = top;
+        }
+
+        private Node child(char c) {
+            int idx = Arrays.binarySearch(labels, c);
+            return idx < 0 ? null : children[idx];
+        }
+    }
+}
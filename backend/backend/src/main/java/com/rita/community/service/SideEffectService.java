@@ -0,0 +1,16 @@
+package com.rita.community.service;
+
+/**
+ * SideEffectService
+ * 作用：把行为入库等不影响响应内容的副作用挪到请求线程之外执行。
+ * 有界队列 + 固定线程池；队列满时丢弃，停机时先排空队列。
+ */
+public interface SideEffectService {
+    /**
+     * 可丢弃的副作用（如行为日志）：队列满或已停机时直接丢弃并计数。
+     *
+     * @param type 副作用类型，用作监控标签
+     * @return 是否已入队
+     */
+    boolean offer(String type, Runnable task);
+}
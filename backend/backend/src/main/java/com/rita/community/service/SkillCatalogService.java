@@ -0,0 +1,38 @@
+package com.rita.community.service;
+
+/**
+ * SkillCatalogService
+ * 作用：进程内技能目录接口，为推荐等读多写少的场景提供上架技能快照，避免每次请求全表查询。
+ */
+public interface SkillCatalogService {
+    /**
+     * 当前上架技能快照；首次调用时全量加载。
+     */
+    SkillCatalogSnapshot snapshot();
+
+    /**
+     * 与目录同步维护的关键词倒排索引。
+     */
+    SkillKeywordIndex keywordIndex();
+
+    /**
+     * 与目录同步维护的地理网格索引，只包含有坐标的技能。
+     */
+    SkillGeoIndex geoIndex();
+
+    /**
+     * 技能 id 是否可能存在（含已下架）：返回 false 时一定不存在，可直接拒绝而不查库；返回 true 仍需以 DB 为准。
+     * 其他节点刚创建、本节点还没增量刷新到的 id 按雪花时间戳放行。
+     */
+    boolean mightExist(long skillId);
+
+    /**
+     * 技能新增/编辑/上下架后调用，登记该技能，稍后与其他变更一起从 DB 重新读取并更新快照。
+     */
+    void refreshSkill(Long skillId);
+
+    /**
+     * 技能删除后调用，稍后与其他变更一起从快照中移除。
+     */
+    void removeSkill(Long skillId);
+}
@@ -0,0 +1,76 @@
+package com.rita.community.service;
+
+import com.rita.community.entity.Skill;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SkillCatalogSnapshot
+ * 作用：上架技能目录的不可变快照，每次变更生成新版本，读方无锁读取。
+ * 注意：快照内的 Skill 实体被多个请求共享，只读，不要修改其字段。
+ */
+public final class SkillCatalogSnapshot {
+    private final long version;
+    private final Map<Long, Skill> byId;
+    private final List<Skill> skills;
+
+    public SkillCatalogSnapshot(long version, Map<Long, Skill> byId) {
+        this(new LinkedHashMap<>(byId), version);
+    }
+
+    // owned 已是本快照独占的新 Map，直接包装、不再复制
+    private SkillCatalogSnapshot(LinkedHashMap<Long, Skill> owned, long version) {
+        this.version = version;
+        this.byId = Collections.unmodifiableMap(owned);
+        this.skills = Collections.unmodifiableList(new ArrayList<>(owned.values()));
+    }
+
+    public static SkillCatalogSnapshot empty() {
+        return new SkillCatalogSnapshot(0L, Collections.emptyMap());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Skill> getSkills() {
+        return skills;
+    }
+
+    public Skill get(Long skillId) {
+        return skillId == null ? null : byId.get(skillId);
+    }
+
+    public boolean isEmpty() {
+        return skills.isEmpty();
+    }
+
+    public int size() {
+        return skills.size();
+    }
+
+    /**
+     * 基于当前快照应用一批变更，返回新版本；status != 1 的技能视为下架并移出目录。
+     * 每次调用都要复制整个目录，调用方应攒批后再调用，不要逐条写入。
+     */
+    public SkillCatalogSnapshot apply(Collection<Skill> changed, Collection<Long> removedIds) {
+        LinkedHashMap<Long, Skill> next = new LinkedHashMap<>(byId);
+        for (Long id : removedIds) {
+            next.remove(id);
+        }
+        for (Skill skill : changed) {
+            if (skill == null || skill.getId() == null) continue;
+            if (Integer.valueOf(1).equals(skill.getStatus())) {
+                next.put(skill.getId(), skill);
+            } else {
+                next.remove(skill.getId());
+            }
+        }
+        return new SkillCatalogSnapshot(next, version + 1);
+    }
+}
@@ -0,0 +1,144 @@
+package com.rita.community.service;
+
+import com.rita.community.entity.Skill;
+import com.rita.community.util.GeoHash;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SkillGeoIndex
+ * 作用：上架技能的内存地理网格索引，按 GeoHash 格子分桶存放有坐标的技能。
+ * 附近查询只取覆盖查询圆的那些格子里的技能，算球面距离过滤后按距离排序，不需要扫描全部技能。
+ */
+public final class SkillGeoIndex {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Point> pointById = new HashMap<>();
+    private final Map<Long, List<Long>> cells = new HashMap<>();
+
+    public static SkillGeoIndex build(Collection<Skill> skills) {
+        SkillGeoIndex index = new SkillGeoIndex();
+        for (Skill skill : skills) {
+            index.addLocked(skill);
+        }
+        return index;
+    }
+
+    /**
+     * 新增或更新技能；没有合法坐标的技能从索引中移除。
+     */
+    public void upsert(Skill skill) {
+        if (skill == null || skill.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            removeLocked(skill.getId());
+            addLocked(skill);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long skillId) {
+        if (skillId == null) return;
+        lock.writeLock().lock();
+        try {
+            removeLocked(skillId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 返回距离 (lat, lng) 不超过 radiusKm 的技能，按距离升序，距离相同按 id 升序。
+     */
+    public List<Hit> within(double lat, double lng, double radiusKm) {
+        List<Hit> hits = new ArrayList<>();
+        if (!GeoHash.isValid(lat, lng) || radiusKm <= 0) return hits;
+        List<Long> covering = GeoHash.cellsCovering(lat, lng, radiusKm);
+        lock.readLock().lock();
+        try {
+            for (Long cell : covering) {
+                List<Long> ids = cells.get(cell);
+                if (ids == null) continue;
+                for (Long id : ids) {
+                    Point point = pointById.get(id);
+                    double distance = GeoHash.distanceKm(lat, lng, point.lat, point.lng);
+                    if (distance <= radiusKm) {
+                        hits.add(new Hit(id, distance));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort((a, b) -> {
+            int cmp = Double.compare(a.distanceKm, b.distanceKm);
+            return cmp != 0 ? cmp : Long.compare(a.skillId, b.skillId);
+        });
+        return hits;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return pointById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addLocked(Skill skill) {
+        if (skill == null || skill.getId() == null || skill.getLat() == null || skill.getLng() == null) return;
+        double lat = skill.getLat().doubleValue();
+        double lng = skill.getLng().doubleValue();
+        if (!GeoHash.isValid(lat, lng)) return;
+        long cell = GeoHash.cellOf(lat, lng);
+        pointById.put(skill.getId(), new Point(lat, lng, cell));
+        cells.computeIfAbsent(cell, (k) -> new ArrayList<>()).add(skill.getId());
+    }
+
+    private void removeLocked(Long skillId) {
+        Point point = pointById.remove(skillId);
+        if (point == null) return;
+        List<Long> ids = cells.get(point.cell);
+        if (ids == null) return;
+        ids.remove(skillId);
+        if (ids.isEmpty()) {
+            cells.remove(point.cell);
+        }
+    }
+
+    public static final class Hit {
+        private final long skillId;
+        private final double distanceKm;
+
+        private Hit(long skillId, double distanceKm) {
+            this.skillId = skillId;
+            this.distanceKm = distanceKm;
+        }
+
+        public long getSkillId() {
+            return skillId;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    private static final class Point {
+        private final double lat;
+        private final double lng;
+        private final long cell;
+
+        private Point(double lat, double lng, long cell) {
+            this.lat = lat;
+            this.lng = lng;
+            this.cell = cell;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.rita.community.service;
+
+import com.rita.community.entity.Skill;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SkillKeywordIndex
+ * 作用：技能标题/描述的字符 n-gram 倒排索引，用于推荐的关键词召回。
+ * 中文没有空格分词，这里按字符切 1-gram 和 2-gram：关键词先取各 gram 倒排表求交得到候选，
+ * 再对候选做一次 contains 校验，结果与逐条 "标题或描述包含关键词" 的扫描完全一致。
+ * 技能编辑时旧条目打墓碑、新内容追加新序号，倒排表保持有序；墓碑过多时整体压缩。
+ */
+public final class SkillKeywordIndex {
+    private static final int MIN_COMPACT_DEAD = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private final Map<Integer, Postings> unigrams = new HashMap<>();
+    private final Map<Integer, Postings> bigrams = new HashMap<>();
+    private final BitSet alive = new BitSet();
+    private long[] ids = new long[16];
+    private String[] texts = new String[16];
+    private int nextOrdinal;
+    private int deadCount;
+
+    public static SkillKeywordIndex build(Collection<Skill> skills) {
+        SkillKeywordIndex index = new SkillKeywordIndex();
+        for (Skill skill : skills) {
+            index.addLocked(skill);
+        }
+        return index;
+    }
+
+    /**
+     * 新增或更新技能；文本未变化时不做任何事。
+     */
+    public void upsert(Skill skill) {
+        if (skill == null || skill.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalById.get(skill.getId());
+            if (ordinal != null && texts[ordinal].equals(normalize(skill))) return;
+            removeLocked(skill.getId());
+            addLocked(skill);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long skillId) {
+        if (skillId == null) return;
+        lock.writeLock().lock();
+        try {
+            removeLocked(skillId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 返回标题或描述包含任一关键词的技能 id（大小写不敏感，关键词会先 trim）。
+     */
+    public Set<Long> match(Collection<String> keywords) {
+        Set<Long> matched = new HashSet<>();
+        if (keywords == null || keywords.isEmpty()) return matched;
+        lock.readLock().lock();
+        try {
+            for (String raw : keywords) {
+                String keyword = raw == null ? "" : raw.trim().toLowerCase(Locale.ROOT);
+                if (keyword.isEmpty()) continue;
+                collectMatches(keyword, matched);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matched;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collectMatches(String keyword, Set<Long> matched) {
+        List<Postings> lists = new ArrayList<>();
+        if (keyword.length() == 1) {
+            Postings postings = unigrams.get((int) keyword.charAt(0));
+            if (postings == null) return;
+            lists.add(postings);
+        } else {
+            Set<Integer> grams = new HashSet<>();
+            for (int i = 0; i + 1 < keyword.length(); i++) {
+                grams.add(bigram(keyword.charAt(i), keyword.charAt(i + 1)));
+            }
+            for (Integer gram : grams) {
+                Postings postings = bigrams.get(gram);
+                if (postings == null) return; // 有 gram 不存在，必然无命中
+                lists.add(postings);
+            }
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+        int[] candidates = Arrays.copyOf(lists.get(0).values, lists.get(0).size);
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            count = intersect(candidates, count, lists.get(i));
+        }
+        for (int i = 0; i < count; i++) {
+            int ordinal = candidates[i];
+            if (alive.get(ordinal) && texts[ordinal].contains(keyword)) {
+                matched.add(ids[ordinal]);
+            }
+        }
+    }
+
+    /**
+     * 两个有序数组求交，结果原地写回 candidates，返回新长度。
+     */
+    private static int intersect(int[] candidates, int count, Postings other) {
+        int i = 0;
+        int j = 0;
+        int out = 0;
+        while (i < count && j < other.size) {
+            int a = candidates[i];
+            int b = other.values[j];
+            if (a == b) {
+                candidates[out++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return out;
+    }
+
+    private void addLocked(Skill skill) {
+        if (skill == null || skill.getId() == null) return;
+        addLocked(skill.getId(), normalize(skill));
+    }
+
+    private void addLocked(long id, String text) {
+        int ordinal = nextOrdinal++;
+        if (ordinal >= ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+        }
+        ids[ordinal] = id;
+        texts[ordinal] = text;
+        alive.set(ordinal);
+        ordinalById.put(id, ordinal);
+
+        Set<Integer> seenUnigrams = new HashSet<>();
+        Set<Integer> seenBigrams = new HashSet<>();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (seenUnigrams.add((int) c)) {
+                unigrams.computeIfAbsent((int) c, (k) -> new Postings()).add(ordinal);
+            }
+            if (i + 1 < text.length()) {
+                int gram = bigram(c, text.charAt(i + 1));
+                if (seenBigrams.add(gram)) {
+                    bigrams.computeIfAbsent(gram, (k) -> new Postings()).add(ordinal);
+                }
+            }
+        }
+    }
+
+    private void removeLocked(Long skillId) {
+        Integer ordinal = ordinalById.remove(skillId);
+        if (ordinal == null) return;
+        alive.clear(ordinal);
+        texts[ordinal] = "";
+        deadCount++;
+    }
+
+    private void compactIfNeeded() {
+        if (deadCount < MIN_COMPACT_DEAD || deadCount < ordinalById.size()) return;
+        long[] oldIds = ids;
+        String[] oldTexts = texts;
+        int oldCount = nextOrdinal;
+        BitSet oldAlive = (BitSet) alive.clone();
+
+        ordinalById.clear();
+        unigrams.clear();
+        bigrams.clear();
+        alive.clear();
+        ids = new long[Math.max(16, oldAlive.cardinality() * 2)];
+        texts = new String[ids.length];
+        nextOrdinal = 0;
+        deadCount = 0;
+        for (int ordinal = 0; ordinal < oldCount; ordinal++) {
+            if (oldAlive.get(ordinal)) {
+                addLocked(oldIds[ordinal], oldTexts[ordinal]);
+            }
+        }
+    }
+
+    /**
+     * 与推荐原来的匹配口径一致：trim 后转小写，标题与描述用 \0 分隔避免跨字段误命中。
+     */
+    private static String normalize(Skill skill) {
+        String title = skill.getTitle() == null ? "" : skill.getTitle().trim().toLowerCase(Locale.ROOT);
+        String desc = skill.getDescription() == null ? "" : skill.getDescription().trim().toLowerCase(Locale.ROOT);
+        return title + '\0' + desc;
+    }
+
+    private static int bigram(char a, char b) {
+        return (a << 16) | b;
+    }
+
+    private static final class Postings {
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int ordinal) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = ordinal;
+        }
+    }
+}
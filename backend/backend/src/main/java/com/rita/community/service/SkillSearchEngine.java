@@ -0,0 +1,17 @@
+package com.rita.community.service;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.rita.community.entity.Skill;
+
+/**
+ * SkillSearchEngine
+ * 作用：技能关键词检索的抽象。实现按 app.search.engine 选择：
+ * fulltext（默认）走 MySQL ngram 全文索引并按相关度排序；like 为旧的 LIKE '%kw%' 扫描，用于没有全文索引的库。
+ */
+public interface SkillSearchEngine {
+    /**
+     * 在上架技能中按关键词检索，可选按分类过滤；结果按相关度降序，相关度相同按发布时间倒序。
+     */
+    IPage<Skill> search(Page<Skill> page, String keyword, String category);
+}
@@ -4,7 +4,10 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.rita.community.entity.Skill;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * SkillService
@@ -15,6 +18,22 @@ public interface SkillService {
 
     IPage<Skill> page(Page<Skill> page, String keyword, String category);
 
+    /**
+     * 游标翻页：按 (created_at, id) 倒序取严格排在 (createdBefore, idBefore) 之后的最多 limit 条上架技能，
+     * 两者为空表示第一页；不做 COUNT。
+     */
+    List<Skill> scroll(LocalDateTime createdBefore, Long idBefore, int limit, String category);
+
+    /**
+     * 附近的上架技能，按距离由近到远分页。
+     */
+    IPage<Skill> nearby(Page<Skill> page, double lng, double lat, double radiusKm, String keyword, String category);
+
+    /**
+     * 各分类的上架技能数（无分类的记在 "" 下），来自 Redis 分面缓存，缺失时 GROUP BY 重建一次。
+     */
+    Map<String, Long> categoryCounts();
+
     List<Skill> mine(Long userId);
 
     boolean updateStatus(Long id, Long userId, Integer status);
@@ -25,6 +44,16 @@ public interface SkillService {
 
     Skill getById(Long id);
 
+    /**
+     * 内存里的存在性预判（布隆过滤器）：false 表示技能一定不存在，调用方可在查库、计浏览量、记行为前直接拒绝。
+     */
+    boolean mightExist(Long id);
+
+    /**
+     * 按 id 批量取技能（一次 selectBatchIds），不保证顺序，不存在的 id 不返回。
+     */
+    List<Skill> listByIds(Collection<Long> ids);
+
     void increaseViewCount(Long id);
 }
 
@@ -0,0 +1,15 @@
+package com.rita.community.service;
+
+/**
+ * SkillViewCounter
+ * 作用：技能浏览量的本节点聚合计数。详情请求只在内存里 +1，每隔几百毫秒把攒下的增量一次 pipeline INCRBY 到 Redis，
+ * 爆款技能不再每次浏览都打同一个 Redis key。
+ */
+public interface SkillViewCounter {
+    void increment(Long skillId);
+
+    /**
+     * 本节点还没刷到 Redis 的浏览量，展示时与 DB 基线、Redis 增量相加。
+     */
+    long localPending(Long skillId);
+}
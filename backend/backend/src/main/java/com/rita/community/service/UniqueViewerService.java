@@ -0,0 +1,27 @@
+package com.rita.community.service;
+
+import java.util.Map;
+
+/**
+ * UniqueViewerService
+ * 作用：技能去重访客数估计。每个技能每天一个 HyperLogLog（按用户 id 或匿名访客指纹），统计时合并窗口内各天；
+ * 同一人反复刷新只算一次，内存与访客多少无关，作为推荐热度信号比原始浏览量更难刷。
+ */
+public interface UniqueViewerService {
+    /**
+     * 记一次浏览；先在本节点按技能去重攒着，定时批量 PFADD。
+     *
+     * @param viewerKey 登录用户为 "u:{userId}"，游客为客户端指纹
+     */
+    void recordView(Long skillId, String viewerKey);
+
+    /**
+     * 最近窗口内的去重访客数（定时统计的结果，不是实时值）；没有访客时为 0。
+     */
+    long uniqueViewers(Long skillId);
+
+    /**
+     * 最近一次统计的全部结果，不可变；每次统计换新实例，可按引用判断是否变化。还没有统计结果时为空 Map。
+     */
+    Map<Long, Long> windowCounts();
+}
@@ -1,29 +1,199 @@
 package com.rita.community.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.rita.community.service.CacheService;
+import com.rita.community.service.InterestProfile;
+import com.rita.community.util.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 /**
  * CacheServiceImpl
  * 作用：基于 Spring Data Redis 的 CacheService 实现，封装 Key 规范与 TTL 策略。
+ * 技能详情在 Redis 前还有一层进程内 L1（Caffeine），失效时经 Redis pub/sub 通知所有实例一起清除。
+ * 回源发现不存在的技能写一条短 TTL 的空条目（负缓存），期间同一 id 不再查库。
  */
 @Service
 public class CacheServiceImpl implements CacheService {
+    private static final Logger log = LoggerFactory.getLogger(CacheServiceImpl.class);
+
 
     private static final String KEY_TOKEN_BLACKLIST = "auth:token:bl:";
     private static final String KEY_LOGIN_FAIL      = "auth:login:fail:";
     private static final String KEY_LOGIN_LOCK      = "auth:login:lock:";
     private static final String KEY_SKILL_DETAIL    = "skill:detail:";
-    private static final String KEY_SKILL_VIEW      = "skill:view:";
+    // 尚未回写 DB 的浏览量增量；有增量的技能 id 记在脏集合里，等定时任务批量回写
+    private static final String KEY_SKILL_VIEW      = "skill:view:delta:";
+    private static final String KEY_SKILL_VIEW_DIRTY = "skill:view:dirty";
+    // 去重访客：skill:uv:{yyyyMMdd}:{id} 是当天的 HLL，skill:uv:active:{yyyyMMdd} 是当天有访客的技能 id
+    private static final String KEY_SKILL_UV        = "skill:uv:";
+    private static final String KEY_SKILL_UV_ACTIVE = "skill:uv:active:";
+    private static final String KEY_PROFILE_WEIGHTS = "rec:profile:w:";
+    private static final String KEY_PROFILE_RECENT  = "rec:profile:r:";
+    private static final String PROFILE_BASE_FIELD  = "_base";
+    private static final String PROFILE_CATEGORY    = "c:";
+    private static final String PROFILE_KEYWORD     = "k:";
+    private static final String KEY_SKILL_FACETS    = "skill:facet:category";
+    private static final String KEY_SKILL_TOTAL     = "skill:list:total:";
+    private static final String KEY_SKILL_LIST_GEN  = "skill:list:gen:";
+    private static final String KEY_SKILL_LIST_PAGE = "skill:list:page:";
+    private static final String KEY_SELLER_GEN      = "skill:list:seller-gen";
+    private static final String GEN_ALL             = "*";
+    private static final String CHANNEL_SKILL_DETAIL_EVICT = "skill:detail:evict";
+
+    // 比较持有者后再删除，GET + DEL 需要原子执行
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+
+    // 分面缓存存在时才 HINCRBY，避免在过期后的空 key 上累加出不完整的计数
+    private static final DefaultRedisScript<Long> FACET_INCR_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then return redis.call('hincrby', KEYS[1], ARGV[1], ARGV[2]) end return 0",
+            Long.class);
+
+    // 浏览量累加与标脏放在一个脚本里，避免计了数却没标脏
+    private static final byte[] VIEW_INCR_SCRIPT = ("local v = redis.call('incrby', KEYS[1], ARGV[2])"
+            + " redis.call('sadd', KEYS[2], ARGV[1]) return v").getBytes(StandardCharsets.UTF_8);
+
+    // 详情条目仍是快照时的值才原地改写，否则说明期间被重新回源过，删掉交给下次读取
+    private static final byte[] DETAIL_CAS_SCRIPT = ("if redis.call('get', KEYS[1]) == ARGV[1] then"
+            + " if tonumber(ARGV[3]) > 0 then redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3])"
+            + " else redis.call('set', KEYS[1], ARGV[2]) end return 1 end"
+            + " redis.call('del', KEYS[1]) return 0").getBytes(StandardCharsets.UTF_8);
+
+    // 兴趣画像计入一次行为。权重按 2^((t - _base) / 半衰期) 放大后累加，读取时再整体缩回，衰减不需要改写已有字段；
+    // 放大系数过大时整体换基准。每个维度累加后只保留权重最高的 maxEntries 个（同权重按名称）。
+    // KEYS: 权重 Hash、最近浏览 List；ARGV: now、半衰期、TTL 毫秒、maxEntries、maxRecent、分类字段、关键词字段、技能 id
+    private static final byte[] PROFILE_EVENT_SCRIPT = String.join("\n",
+            "local base = redis.call('hget', KEYS[1], '_base')",
+            "if not base then return 0 end",
+            "local now = tonumber(ARGV[1])",
+            "local half = tonumber(ARGV[2])",
+            "local scale = 1",
+            "if half > 0 and now > tonumber(base) then scale = 2 ^ ((now - tonumber(base)) / half) end",
+            "if scale > 1e12 then",
+            "  local all = redis.call('hgetall', KEYS[1])",
+            "  for i = 1, #all, 2 do",
+            "    if all[i] ~= '_base' then redis.call('hset', KEYS[1], all[i], tostring(tonumber(all[i + 1]) / scale)) end",
+            "  end",
+            "  redis.call('hset', KEYS[1], '_base', ARGV[1])",
+            "  scale = 1",
+            "end",
+            "local max = tonumber(ARGV[4])",
+            "for j = 6, 7 do",
+            "  if ARGV[j] ~= '' then",
+            "    redis.call('hincrbyfloat', KEYS[1], ARGV[j], scale)",
+            "    local prefix = string.sub(ARGV[j], 1, 2)",
+            "    local all = redis.call('hgetall', KEYS[1])",
+            "    local items = {}",
+            "    for i = 1, #all, 2 do",
+            "      if string.sub(all[i], 1, 2) == prefix then items[#items + 1] = {all[i], tonumber(all[i + 1])} end",
+            "    end",
+            "    if #items > max then",
+            "      table.sort(items, function(a, b) if a[2] ~= b[2] then return a[2] > b[2] end return a[1] < b[1] end)",
+            "      for i = max + 1, #items do redis.call('hdel', KEYS[1], items[i][1]) end",
+            "    end",
+            "  end",
+            "end",
+            "if ARGV[8] ~= '' then",
+            "  redis.call('lrem', KEYS[2], 0, ARGV[8])",
+            "  redis.call('lpush', KEYS[2], ARGV[8])",
+            "  redis.call('ltrim', KEYS[2], 0, tonumber(ARGV[5]) - 1)",
+            "end",
+            "redis.call('pexpire', KEYS[1], ARGV[3])",
+            "redis.call('pexpire', KEYS[2], ARGV[3])",
+            "return 1").getBytes(StandardCharsets.UTF_8);
+
+    // 画像不存在时才写入重建结果；ARGV: TTL 毫秒、_base、最近浏览条数 n、n 个技能 id（新的在前）、字段/权重对
+    private static final byte[] PROFILE_PUT_SCRIPT = String.join("\n",
+            "if redis.call('exists', KEYS[1]) == 1 then return 0 end",
+            "redis.call('del', KEYS[2])",
+            "redis.call('hset', KEYS[1], '_base', ARGV[2])",
+            "local n = tonumber(ARGV[3])",
+            "for i = 4, 3 + n do redis.call('rpush', KEYS[2], ARGV[i]) end",
+            "for i = 4 + n, #ARGV, 2 do redis.call('hset', KEYS[1], ARGV[i], ARGV[i + 1]) end",
+            "redis.call('pexpire', KEYS[1], ARGV[1])",
+            "redis.call('pexpire', KEYS[2], ARGV[1])",
+            "return 1").getBytes(StandardCharsets.UTF_8);
 
     private final RedisTemplate<String, Object> redisTemplate;
+    // 详情 L1：值是共享实例，调用方修改前必须先拷贝
+    private final Cache<Long, DetailEntry> detailL1;
+    private final SingleFlight<Long, Object> detailFlight = new SingleFlight<>();
+    private final double xfetchBeta;
+    private final int missingTtlSeconds;
+    private final Counter detailLoads;
+    private final Counter detailEarlyRefresh;
+    private final Counter detailMissingHit;
+    private final Counter l1Hit;
+    private final Counter l1Miss;
+    private final Counter l2Hit;
+    private final Counter l2Miss;
 
-    public CacheServiceImpl(RedisTemplate<String, Object> redisTemplate) {
+    public CacheServiceImpl(RedisTemplate<String, Object> redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.cache.skill-detail-local-max-size:10000}") long localMaxSize,
+                            @Value("${app.cache.skill-detail-local-ttl-seconds:30}") long localTtlSeconds,
+                            @Value("${app.cache.skill-detail-xfetch-beta:1.0}") double xfetchBeta,
+                            @Value("${app.cache.skill-missing-ttl-seconds:60}") int missingTtlSeconds) {
         this.redisTemplate = redisTemplate;
+        this.xfetchBeta = xfetchBeta;
+        this.missingTtlSeconds = missingTtlSeconds;
+        this.detailL1 = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+        this.l1Hit = detailCounter(meterRegistry, "l1", "hit");
+        this.l1Miss = detailCounter(meterRegistry, "l1", "miss");
+        this.l2Hit = detailCounter(meterRegistry, "l2", "hit");
+        this.l2Miss = detailCounter(meterRegistry, "l2", "miss");
+        this.detailLoads = Counter.builder("cache.skill.detail.load").register(meterRegistry);
+        this.detailEarlyRefresh = Counter.builder("cache.skill.detail.early_refresh").register(meterRegistry);
+        this.detailMissingHit = Counter.builder("cache.skill.detail.missing").register(meterRegistry);
+        // 其他实例（包括自己）发出的失效通知：只清本地 L1，Redis 已由发出方删除
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                detailL1.invalidate(Long.parseLong(StringRedisSerializer.UTF_8.deserialize(message.getBody())));
+            } catch (Exception ignore) {
+                // 非法消息直接丢弃，L1 TTL 兜底
+            }
+        }, new ChannelTopic(CHANNEL_SKILL_DETAIL_EVICT));
+    }
+
+    private static Counter detailCounter(MeterRegistry registry, String level, String result) {
+        return Counter.builder("cache.skill.detail").tag("level", level).tag("result", result).register(registry);
     }
 
     /* ============ 通用 ============ */
@@ -109,35 +279,238 @@ public class CacheServiceImpl implements CacheService {
     @SuppressWarnings("unchecked")
     public <T> T getSkillDetail(Long skillId, Class<T> type) {
         if (skillId == null) return null;
-        Object val = redisTemplate.opsForValue().get(KEY_SKILL_DETAIL + skillId);
-        if (val == null) return null;
-        if (type.isInstance(val)) return (T) val;
-        return null;
+        DetailEntry entry = readDetail(skillId);
+        if (entry == null || !type.isInstance(entry.value)) return null;
+        return (T) entry.value;
+    }
+
+    /**
+     * 未命中时同一技能只有一个请求回源（SingleFlight），其余并发请求等它的结果；
+     * 命中时按 XFetch 以随到期临近而增大的概率提前回源，让热点 key 在过期前就被刷新，不会集中失效。
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoadSkillDetail(Long skillId, Class<T> type, Supplier<T> loader, int ttlSeconds) {
+        if (skillId == null) return null;
+        DetailEntry entry = readDetail(skillId);
+        if (entry != null && entry.value == null) {
+            // 负缓存：不久前确认过不存在
+            detailMissingHit.increment();
+            return null;
+        }
+        if (entry != null && type.isInstance(entry.value)) {
+            if (!shouldRefreshEarly(entry)) return (T) entry.value;
+            detailEarlyRefresh.increment();
+            Object refreshed = detailFlight.execute(skillId, () -> loadDetail(skillId, loader, ttlSeconds));
+            return type.isInstance(refreshed) ? (T) refreshed : null;
+        }
+        Object loaded = detailFlight.execute(skillId, () -> {
+            // 排队期间可能已被别的实例写回
+            DetailEntry again = toEntry(redisTemplate.opsForValue().get(KEY_SKILL_DETAIL + skillId));
+            if (again != null && (again.value == null || type.isInstance(again.value))) {
+                detailL1.put(skillId, again);
+                return again.value;
+            }
+            return loadDetail(skillId, loader, ttlSeconds);
+        });
+        return type.isInstance(loaded) ? (T) loaded : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Map<Long, T> getSkillDetails(Collection<Long> skillIds, Class<T> type) {
+        Map<Long, T> hits = new HashMap<>();
+        if (skillIds == null || skillIds.isEmpty()) return hits;
+        List<Long> ids = new ArrayList<>(skillIds.size());
+        for (Long id : skillIds) {
+            if (id == null) continue;
+            DetailEntry local = detailL1.getIfPresent(id);
+            if (local != null && local.value == null) {
+                // 负缓存：已确认不存在，不再回源
+                hits.put(id, null);
+                detailMissingHit.increment();
+            } else if (local != null && type.isInstance(local.value)) {
+                hits.put(id, (T) local.value);
+            } else {
+                ids.add(id);
+            }
+        }
+        l1Hit.increment(hits.size());
+        l1Miss.increment(ids.size());
+        if (ids.isEmpty()) return hits;
+
+        List<String> keys = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            keys.add(KEY_SKILL_DETAIL + id);
+        }
+        List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+        int found = 0;
+        if (values != null) {
+            for (int i = 0; i < ids.size() && i < values.size(); i++) {
+                DetailEntry entry = toEntry(values.get(i));
+                if (entry == null || (entry.value != null && !type.isInstance(entry.value))) continue;
+                if (entry.value == null) detailMissingHit.increment();
+                hits.put(ids.get(i), (T) entry.value);
+                detailL1.put(ids.get(i), entry);
+                found++;
+            }
+        }
+        l2Hit.increment(found);
+        l2Miss.increment(ids.size() - found);
+        return hits;
     }
 
     @Override
     public void putSkillDetail(Long skillId, Object detail, int ttlSeconds) {
         if (skillId == null || detail == null) return;
-        if (ttlSeconds <= 0) {
-            redisTemplate.opsForValue().set(KEY_SKILL_DETAIL + skillId, detail);
-        } else {
-            redisTemplate.opsForValue().set(KEY_SKILL_DETAIL + skillId, detail, ttlSeconds, TimeUnit.SECONDS);
+        writeDetail(skillId, DetailEntry.of(detail, 0L, ttlSeconds));
+    }
+
+    @Override
+    public void putSkillDetails(Map<Long, ?> details, int ttlSeconds) {
+        if (details == null || details.isEmpty()) return;
+        Map<Long, DetailEntry> entries = new HashMap<>();
+        for (Map.Entry<Long, ?> e : details.entrySet()) {
+            if (e.getKey() == null || e.getValue() == null) continue;
+            entries.put(e.getKey(), DetailEntry.of(e.getValue(), 0L, ttlSeconds));
+        }
+        writeDetails(entries, ttlSeconds);
+    }
+
+    @Override
+    public void putMissingSkillDetails(Collection<Long> skillIds) {
+        if (skillIds == null || skillIds.isEmpty() || missingTtlSeconds <= 0) return;
+        Map<Long, DetailEntry> entries = new HashMap<>();
+        for (Long id : skillIds) {
+            if (id != null) entries.put(id, DetailEntry.of(null, 0L, missingTtlSeconds));
         }
+        writeDetails(entries, missingTtlSeconds);
+    }
+
+    /**
+     * 批量写 L1 与 Redis，一次 pipeline。
+     */
+    @SuppressWarnings("unchecked")
+    private void writeDetails(Map<Long, DetailEntry> entries, int ttlSeconds) {
+        if (entries.isEmpty()) return;
+        detailL1.putAll(entries);
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<Long, DetailEntry> e : entries.entrySet()) {
+                byte[] key = keySerializer.serialize(KEY_SKILL_DETAIL + e.getKey());
+                byte[] value = valueSerializer.serialize(e.getValue());
+                if (ttlSeconds <= 0) {
+                    connection.stringCommands().set(key, value);
+                } else {
+                    connection.stringCommands().setEx(key, ttlSeconds, value);
+                }
+            }
+            return null;
+        });
     }
 
     @Override
     public void evictSkillDetail(Long skillId) {
         if (skillId == null) return;
+        detailL1.invalidate(skillId);
         redisTemplate.delete(KEY_SKILL_DETAIL + skillId);
+        // 消息体用纯字符串，不走 JSON 序列化
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(
+                StringRedisSerializer.UTF_8.serialize(CHANNEL_SKILL_DETAIL_EVICT),
+                StringRedisSerializer.UTF_8.serialize(skillId.toString())));
+    }
+
+    private DetailEntry readDetail(Long skillId) {
+        DetailEntry local = detailL1.getIfPresent(skillId);
+        if (local != null) {
+            l1Hit.increment();
+            return local;
+        }
+        l1Miss.increment();
+        DetailEntry entry = toEntry(redisTemplate.opsForValue().get(KEY_SKILL_DETAIL + skillId));
+        if (entry == null) {
+            l2Miss.increment();
+            return null;
+        }
+        l2Hit.increment();
+        detailL1.put(skillId, entry);
+        return entry;
+    }
+
+    private Object loadDetail(Long skillId, Supplier<?> loader, int ttlSeconds) {
+        detailLoads.increment();
+        long start = System.currentTimeMillis();
+        Object value = loader.get();
+        if (value == null) {
+            if (missingTtlSeconds > 0) {
+                writeDetail(skillId, DetailEntry.of(null, 0L, missingTtlSeconds));
+            }
+            return null;
+        }
+        writeDetail(skillId, DetailEntry.of(value, System.currentTimeMillis() - start, ttlSeconds));
+        return value;
+    }
+
+    private void writeDetail(Long skillId, DetailEntry entry) {
+        detailL1.put(skillId, entry);
+        if (entry.expiresAtMs == Long.MAX_VALUE) {
+            redisTemplate.opsForValue().set(KEY_SKILL_DETAIL + skillId, entry);
+        } else {
+            redisTemplate.opsForValue().set(KEY_SKILL_DETAIL + skillId, entry,
+                    entry.expiresAtMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * XFetch：now - delta * beta * ln(rand) >= expiry 时提前刷新，delta 为上次回源耗时；不知道回源耗时的条目只等自然过期。
+     */
+    private boolean shouldRefreshEarly(DetailEntry entry) {
+        if (entry.deltaMs <= 0 || entry.expiresAtMs == Long.MAX_VALUE) return false;
+        double gap = -entry.deltaMs * xfetchBeta * Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + gap >= entry.expiresAtMs;
+    }
+
+    private DetailEntry toEntry(Object raw) {
+        if (raw == null) return null;
+        if (raw instanceof DetailEntry entry) return entry;
+        // 兼容升级前直接存 DTO 的旧值
+        return DetailEntry.of(raw, 0L, 0);
+    }
+
+    /**
+     * 详情缓存的值：DTO 加上回源耗时和到期时刻（XFetch 需要）；value 为 null 表示技能不存在。存 Redis，不能声明为 final。
+     */
+    static class DetailEntry {
+        private Object value;
+        private long deltaMs;
+        private long expiresAtMs;
+
+        static DetailEntry of(Object value, long deltaMs, int ttlSeconds) {
+            DetailEntry entry = new DetailEntry();
+            entry.value = value;
+            entry.deltaMs = deltaMs;
+            entry.expiresAtMs = ttlSeconds <= 0 ? Long.MAX_VALUE : System.currentTimeMillis() + ttlSeconds * 1000L;
+            return entry;
+        }
     }
 
     /* ============ 技能浏览量 ============ */
 
     @Override
-    public long incrSkillView(Long skillId) {
-        if (skillId == null) return 0L;
-        Long v = redisTemplate.opsForValue().increment(KEY_SKILL_VIEW + skillId);
-        return v == null ? 0L : v;
+    public void incrSkillViews(Map<Long, Long> deltas) {
+        if (deltas == null || deltas.isEmpty()) return;
+        byte[] dirtyKey = StringRedisSerializer.UTF_8.serialize(KEY_SKILL_VIEW_DIRTY);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<Long, Long> e : deltas.entrySet()) {
+                if (e.getKey() == null || e.getValue() == null || e.getValue() <= 0) continue;
+                connection.scriptingCommands().eval(VIEW_INCR_SCRIPT, ReturnType.INTEGER, 2,
+                        StringRedisSerializer.UTF_8.serialize(KEY_SKILL_VIEW + e.getKey()), dirtyKey,
+                        StringRedisSerializer.UTF_8.serialize(e.getKey().toString()),
+                        StringRedisSerializer.UTF_8.serialize(e.getValue().toString()));
+            }
+            return null;
+        });
     }
 
     @Override
@@ -152,4 +525,393 @@ public class CacheServiceImpl implements CacheService {
             return null;
         }
     }
+
+    @Override
+    public Map<Long, Long> getSkillViews(Collection<Long> skillIds) {
+        Map<Long, Long> views = new HashMap<>();
+        if (skillIds == null || skillIds.isEmpty()) return views;
+        List<Long> ids = new ArrayList<>(skillIds);
+        List<String> keys = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            keys.add(KEY_SKILL_VIEW + id);
+        }
+        List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+        if (values == null) return views;
+        for (int i = 0; i < ids.size() && i < values.size(); i++) {
+            Long v = toLong(values.get(i));
+            if (v != null) views.put(ids.get(i), v);
+        }
+        return views;
+    }
+
+    @Override
+    public List<Long> claimDirtySkillViews(int limit) {
+        List<Long> ids = new ArrayList<>();
+        if (limit <= 0) return ids;
+        List<byte[]> members = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.setCommands().sPop(StringRedisSerializer.UTF_8.serialize(KEY_SKILL_VIEW_DIRTY), limit));
+        if (members == null) return ids;
+        for (byte[] member : members) {
+            Long id = toLong(StringRedisSerializer.UTF_8.deserialize(member));
+            if (id != null) ids.add(id);
+        }
+        return ids;
+    }
+
+    @Override
+    public Map<Long, Long> takeSkillViews(Collection<Long> skillIds) {
+        Map<Long, Long> deltas = new HashMap<>();
+        if (skillIds == null || skillIds.isEmpty()) return deltas;
+        List<Long> ids = new ArrayList<>(skillIds);
+        // GETDEL（Redis 6.2+）：取走即删除，不在 Redis 里留下大量没有 TTL 的 0 值 key
+        List<Object> values = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long id : ids) {
+                connection.stringCommands().getDel(StringRedisSerializer.UTF_8.serialize(KEY_SKILL_VIEW + id));
+            }
+            return null;
+        });
+        for (int i = 0; i < ids.size() && i < values.size(); i++) {
+            Long v = toLong(values.get(i));
+            if (v != null && v > 0) deltas.put(ids.get(i), v);
+        }
+        return deltas;
+    }
+
+    /**
+     * 快照在 dbWrite 之前取：快照之后才回源的条目可能读到了写库前或写库后的值，分不清，统一删掉；
+     * 快照里的条目则一定是写库前的值，加上增量即可。改写走 CAS 脚本，并通知各实例清 L1。
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> void applySkillDetailViews(Map<Long, Long> deltas, Class<T> type, BiConsumer<T, Long> addViews, Runnable dbWrite) {
+        if (deltas == null || deltas.isEmpty()) return;
+        List<Long> ids = new ArrayList<>(deltas.keySet());
+        byte[][] keys = new byte[ids.size()][];
+        for (int i = 0; i < ids.size(); i++) {
+            keys[i] = StringRedisSerializer.UTF_8.serialize(KEY_SKILL_DETAIL + ids.get(i));
+        }
+        List<byte[]> before = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(keys));
+
+        dbWrite.run();
+
+        try {
+            RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+            byte[] channel = StringRedisSerializer.UTF_8.serialize(CHANNEL_SKILL_DETAIL_EVICT);
+            long now = System.currentTimeMillis();
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < ids.size(); i++) {
+                    byte[] raw = before == null || i >= before.size() ? null : before.get(i);
+                    if (raw == null) continue; // 没缓存，下次回源自然读到新值
+                    DetailEntry entry = toEntry(valueSerializer.deserialize(raw));
+                    if (entry == null || !type.isInstance(entry.value)) continue;
+                    long ttlMs = entry.expiresAtMs == Long.MAX_VALUE ? 0L : entry.expiresAtMs - now;
+                    if (entry.expiresAtMs != Long.MAX_VALUE && ttlMs <= 0) continue;
+                    addViews.accept((T) entry.value, deltas.get(ids.get(i)));
+                    connection.scriptingCommands().eval(DETAIL_CAS_SCRIPT, ReturnType.INTEGER, 1,
+                            keys[i], raw, valueSerializer.serialize(entry),
+                            StringRedisSerializer.UTF_8.serialize(Long.toString(ttlMs)));
+                    connection.publish(channel, StringRedisSerializer.UTF_8.serialize(ids.get(i).toString()));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // DB 已写入，不能让调用方把增量加回去；缓存修正失败就退回驱逐
+            log.warn("Patch skill detail view counts failed, evict instead", e);
+            try {
+                for (Long id : ids) {
+                    evictSkillDetail(id);
+                }
+            } catch (Exception ignore) {
+                // Redis 不可用时只能等详情 TTL 过期
+            }
+        }
+    }
+
+    /* ============ 技能去重访客 ============ */
+
+    @Override
+    public void addSkillViewers(String day, Map<Long, ? extends Collection<String>> viewers, int ttlSeconds) {
+        if (day == null || viewers == null || viewers.isEmpty()) return;
+        StringRedisSerializer s = StringRedisSerializer.UTF_8;
+        byte[] activeKey = s.serialize(KEY_SKILL_UV_ACTIVE + day);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            List<byte[]> ids = new ArrayList<>(viewers.size());
+            for (Map.Entry<Long, ? extends Collection<String>> e : viewers.entrySet()) {
+                if (e.getKey() == null || e.getValue() == null || e.getValue().isEmpty()) continue;
+                byte[] key = s.serialize(KEY_SKILL_UV + day + ":" + e.getKey());
+                byte[][] values = new byte[e.getValue().size()][];
+                int i = 0;
+                for (String viewer : e.getValue()) {
+                    values[i++] = s.serialize(viewer);
+                }
+                connection.hyperLogLogCommands().pfAdd(key, values);
+                connection.keyCommands().expire(key, ttlSeconds);
+                ids.add(s.serialize(e.getKey().toString()));
+            }
+            if (!ids.isEmpty()) {
+                connection.setCommands().sAdd(activeKey, ids.toArray(new byte[0][]));
+                connection.keyCommands().expire(activeKey, ttlSeconds);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Set<Long> getViewedSkills(Collection<String> days) {
+        Set<Long> ids = new HashSet<>();
+        if (days == null || days.isEmpty()) return ids;
+        byte[][] keys = new byte[days.size()][];
+        int i = 0;
+        for (String day : days) {
+            keys[i++] = StringRedisSerializer.UTF_8.serialize(KEY_SKILL_UV_ACTIVE + day);
+        }
+        Set<byte[]> members = redisTemplate.execute((RedisCallback<Set<byte[]>>) connection ->
+                connection.setCommands().sUnion(keys));
+        if (members == null) return ids;
+        for (byte[] member : members) {
+            Long id = toLong(StringRedisSerializer.UTF_8.deserialize(member));
+            if (id != null) ids.add(id);
+        }
+        return ids;
+    }
+
+    @Override
+    public Map<Long, Long> countSkillViewers(Collection<Long> skillIds, Collection<String> days) {
+        Map<Long, Long> counts = new HashMap<>();
+        if (skillIds == null || skillIds.isEmpty() || days == null || days.isEmpty()) return counts;
+        List<Long> ids = new ArrayList<>(skillIds);
+        List<Object> values = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long id : ids) {
+                byte[][] keys = new byte[days.size()][];
+                int i = 0;
+                for (String day : days) {
+                    keys[i++] = StringRedisSerializer.UTF_8.serialize(KEY_SKILL_UV + day + ":" + id);
+                }
+                connection.hyperLogLogCommands().pfCount(keys);
+            }
+            return null;
+        });
+        for (int i = 0; i < ids.size() && i < values.size(); i++) {
+            Long v = toLong(values.get(i));
+            if (v != null && v > 0) counts.put(ids.get(i), v);
+        }
+        return counts;
+    }
+
+    /* ============ 兴趣画像 ============ */
+
+    @Override
+    public InterestProfile getInterestProfile(Long userId, long halfLifeMs) {
+        if (userId == null) return null;
+        RedisSerializer<String> s = StringRedisSerializer.UTF_8;
+        // 字段值是 Lua 写的纯文本数字，直接读原始字节，不经过模板的 JSON 序列化器
+        Map<byte[], byte[]> raw = redisTemplate.execute((RedisCallback<Map<byte[], byte[]>>) connection ->
+                connection.hashCommands().hGetAll(s.serialize(KEY_PROFILE_WEIGHTS + userId)));
+        if (raw == null || raw.isEmpty()) return null;
+        Map<String, String> weights = new HashMap<>(raw.size() * 2);
+        raw.forEach((k, v) -> weights.put(s.deserialize(k), s.deserialize(v)));
+        String base = weights.get(PROFILE_BASE_FIELD);
+        if (base == null) return null;
+        List<byte[]> recent = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.listCommands().lRange(s.serialize(KEY_PROFILE_RECENT + userId), 0, -1));
+
+        long now = System.currentTimeMillis();
+        double scale = profileScale(now, Long.parseLong(base), halfLifeMs);
+        InterestProfile profile = new InterestProfile();
+        for (Map.Entry<String, String> e : weights.entrySet()) {
+            String field = e.getKey();
+            if (field.length() <= 2) continue;
+            double weight = Double.parseDouble(e.getValue()) / scale;
+            if (field.startsWith(PROFILE_CATEGORY)) {
+                profile.addCategory(field.substring(2), weight);
+            } else if (field.startsWith(PROFILE_KEYWORD)) {
+                profile.addKeyword(field.substring(2), weight);
+            }
+        }
+        if (recent != null) {
+            // List 里新的在前，倒着插到最前面以保持顺序
+            for (int i = recent.size() - 1; i >= 0; i--) {
+                profile.addRecentSkill(Long.parseLong(s.deserialize(recent.get(i))), recent.size());
+            }
+        }
+        profile.decayTo(now, halfLifeMs);
+        return profile;
+    }
+
+    @Override
+    public boolean addInterestEvent(Long userId, String category, String keyword, Long skillId,
+                                    long halfLifeMs, int maxEntries, int maxRecent, Duration ttl) {
+        if (userId == null) return false;
+        RedisSerializer<String> s = StringRedisSerializer.UTF_8;
+        Long ok = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands().eval(
+                PROFILE_EVENT_SCRIPT, ReturnType.INTEGER, 2,
+                s.serialize(KEY_PROFILE_WEIGHTS + userId), s.serialize(KEY_PROFILE_RECENT + userId),
+                s.serialize(Long.toString(System.currentTimeMillis())), s.serialize(Long.toString(halfLifeMs)),
+                s.serialize(Long.toString(ttl.toMillis())), s.serialize(Integer.toString(maxEntries)),
+                s.serialize(Integer.toString(maxRecent)),
+                s.serialize(category == null || category.isEmpty() ? "" : PROFILE_CATEGORY + category),
+                s.serialize(keyword == null || keyword.isEmpty() ? "" : PROFILE_KEYWORD + keyword),
+                s.serialize(skillId == null ? "" : skillId.toString())));
+        return ok != null && ok == 1L;
+    }
+
+    @Override
+    public boolean putInterestProfileIfAbsent(Long userId, InterestProfile profile, Duration ttl) {
+        if (userId == null || profile == null) return false;
+        RedisSerializer<String> s = StringRedisSerializer.UTF_8;
+        // 以画像的更新时刻为基准，存的就是衰减后的权重本身
+        List<byte[]> keysAndArgs = new ArrayList<>();
+        keysAndArgs.add(s.serialize(KEY_PROFILE_WEIGHTS + userId));
+        keysAndArgs.add(s.serialize(KEY_PROFILE_RECENT + userId));
+        keysAndArgs.add(s.serialize(Long.toString(ttl.toMillis())));
+        keysAndArgs.add(s.serialize(Long.toString(profile.getUpdatedAt() > 0 ? profile.getUpdatedAt() : System.currentTimeMillis())));
+        keysAndArgs.add(s.serialize(Integer.toString(profile.getRecentSkills().size())));
+        for (Long skillId : profile.getRecentSkills()) {
+            keysAndArgs.add(s.serialize(skillId.toString()));
+        }
+        profile.getCategories().forEach((name, weight) -> {
+            keysAndArgs.add(s.serialize(PROFILE_CATEGORY + name));
+            keysAndArgs.add(s.serialize(Double.toString(weight)));
+        });
+        profile.getKeywords().forEach((name, weight) -> {
+            keysAndArgs.add(s.serialize(PROFILE_KEYWORD + name));
+            keysAndArgs.add(s.serialize(Double.toString(weight)));
+        });
+        Long ok = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands().eval(
+                PROFILE_PUT_SCRIPT, ReturnType.INTEGER, 2, keysAndArgs.toArray(new byte[0][])));
+        return ok != null && ok == 1L;
+    }
+
+    private static double profileScale(long now, long base, long halfLifeMs) {
+        if (halfLifeMs <= 0 || now <= base) return 1.0;
+        return Math.pow(2.0, (double) (now - base) / (double) halfLifeMs);
+    }
+
+    /* ============ 技能列表计数 ============ */
+
+    @Override
+    public Map<String, Long> getSkillFacets() {
+        Map<Object, Object> raw = redisTemplate.opsForHash().entries(KEY_SKILL_FACETS);
+        if (raw == null || raw.isEmpty()) return null;
+        Map<String, Long> counts = new HashMap<>(raw.size() * 2);
+        for (Map.Entry<Object, Object> e : raw.entrySet()) {
+            Long n = toLong(e.getValue());
+            if (n != null) counts.put(e.getKey().toString(), n);
+        }
+        return counts;
+    }
+
+    @Override
+    public void putSkillFacets(Map<String, Long> counts, int ttlSeconds) {
+        if (counts == null) return;
+        // 空目录也要落一个字段，否则 key 不存在会被当成未缓存
+        Map<String, Object> fields = new HashMap<>(counts);
+        fields.putIfAbsent("", 0L);
+        redisTemplate.delete(KEY_SKILL_FACETS);
+        redisTemplate.opsForHash().putAll(KEY_SKILL_FACETS, fields);
+        redisTemplate.expire(KEY_SKILL_FACETS, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void incrSkillFacet(String category, long delta) {
+        if (delta == 0) return;
+        StringRedisSerializer s = StringRedisSerializer.UTF_8;
+        redisTemplate.execute(FACET_INCR_SCRIPT, s, null, List.of(KEY_SKILL_FACETS),
+                category == null ? "" : category, Long.toString(delta));
+    }
+
+    @Override
+    public Long getSkillListTotal(String filterKey) {
+        if (filterKey == null) return null;
+        return toLong(redisTemplate.opsForValue().get(KEY_SKILL_TOTAL + filterKey));
+    }
+
+    @Override
+    public void putSkillListTotal(String filterKey, long total, int ttlSeconds) {
+        if (filterKey == null || ttlSeconds <= 0) return;
+        redisTemplate.opsForValue().set(KEY_SKILL_TOTAL + filterKey, total, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    /* ============ 技能列表结果缓存 ============ */
+
+    @Override
+    public long getSkillListGeneration(String category) {
+        Long gen = toLong(redisTemplate.opsForValue().get(listGenKey(category)));
+        return gen == null ? 0L : gen;
+    }
+
+    @Override
+    public void bumpSkillListGeneration(String category) {
+        String allKey = listGenKey(null);
+        String categoryKey = listGenKey(category);
+        if (!categoryKey.equals(allKey)) {
+            redisTemplate.opsForValue().increment(categoryKey);
+        }
+        redisTemplate.opsForValue().increment(allKey);
+    }
+
+    // 读写共用同一映射：没有分类（null 或空白）即全局代号
+    private String listGenKey(String category) {
+        return KEY_SKILL_LIST_GEN + (category == null || category.isBlank() ? GEN_ALL : category);
+    }
+
+    @Override
+    public long getSellerGeneration() {
+        Long gen = toLong(redisTemplate.opsForValue().get(KEY_SELLER_GEN));
+        return gen == null ? 0L : gen;
+    }
+
+    @Override
+    public void bumpSellerGeneration() {
+        redisTemplate.opsForValue().increment(KEY_SELLER_GEN);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getSkillListPage(String pageKey, Class<T> type) {
+        if (pageKey == null) return null;
+        Object val = redisTemplate.opsForValue().get(KEY_SKILL_LIST_PAGE + pageKey);
+        if (val == null) return null;
+        if (type.isInstance(val)) return (T) val;
+        return null;
+    }
+
+    @Override
+    public void putSkillListPage(String pageKey, Object page, int ttlSeconds) {
+        if (pageKey == null || page == null || ttlSeconds <= 0) return;
+        redisTemplate.opsForValue().set(KEY_SKILL_LIST_PAGE + pageKey, page, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    private Long toLong(Object v) {
+        if (v == null) return null;
+        if (v instanceof Number n) return n.longValue();
+        try {
+            return Long.parseLong(v.toString());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /* ============ 任务锁 ============ */
+
+    @Override
+    public boolean tryLock(String key, String owner, Duration ttl) {
+        if (key == null || owner == null) return false;
+        Boolean ok = redisTemplate.opsForValue().setIfAbsent(key, owner, ttl);
+        return Boolean.TRUE.equals(ok);
+    }
+
+    @Override
+    public boolean renewLock(String key, String owner, Duration ttl) {
+        if (key == null || owner == null) return false;
+        Long ok = redisTemplate.execute(RENEW_SCRIPT, List.of(key), owner, ttl.toMillis());
+        return ok != null && ok == 1L;
+    }
+
+    @Override
+    public void unlock(String key, String owner) {
+        if (key == null || owner == null) return;
+        redisTemplate.execute(UNLOCK_SCRIPT, List.of(key), owner);
+    }
 }
@@ -0,0 +1,165 @@
+package com.rita.community.service.impl;
+
+import com.rita.community.entity.UserEvent;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * CooccurrenceCounting
+ * 作用：共现模型的纯计算部分，不碰数据库，便于单测。
+ * countPairs 把一块行为按用户折算成共现增量：同一用户在时间窗口内先后看过的两个技能互相记一次（收藏记 2 次），
+ * 重复浏览同一技能不重复计数；Neighbors 是单个技能的前 N 近邻及其落库编码。
+ */
+final class CooccurrenceCounting {
+    static final int HISTORY_SIZE = 20;
+    static final int FAVORITE_WEIGHT = 2;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private CooccurrenceCounting() {
+    }
+
+    /**
+     * 统计一块行为里的共现增量（技能 id -> 近邻 id -> 次数）。
+     *
+     * @param histories     用户 id -> 最近访问（从新到旧），跨块复用，会被原地更新
+     * @param historyLoader 缓存里没有该用户时，按用户在本块的第一条行为加载块之前的历史
+     */
+    static Map<Long, Map<Long, Integer>> countPairs(List<UserEvent> events, Map<Long, Deque<Visit>> histories,
+                                                   Function<UserEvent, Deque<Visit>> historyLoader, long windowMs) {
+        Map<Long, List<UserEvent>> byUser = new LinkedHashMap<>();
+        for (UserEvent event : events) {
+            if (event.getUserId() == null || event.getSkillId() == null) continue;
+            byUser.computeIfAbsent(event.getUserId(), (k) -> new ArrayList<>()).add(event);
+        }
+
+        Map<Long, Map<Long, Integer>> delta = new HashMap<>();
+        for (Map.Entry<Long, List<UserEvent>> entry : byUser.entrySet()) {
+            Deque<Visit> history = histories.get(entry.getKey());
+            if (history == null) {
+                history = historyLoader.apply(entry.getValue().get(0));
+                histories.put(entry.getKey(), history);
+            }
+            for (UserEvent event : entry.getValue()) {
+                long skillId = event.getSkillId();
+                long at = toMillis(event.getCreatedAt());
+                int weight = "favorite".equals(event.getEventType()) ? FAVORITE_WEIGHT : 1;
+
+                boolean seen = false;
+                for (Visit visit : history) {
+                    if (visit.skillId == skillId) {
+                        seen = true;
+                        break;
+                    }
+                }
+                if (!seen) { // 重复浏览同一技能不再重复计数
+                    for (Visit visit : history) {
+                        if (at - visit.at > windowMs) break; // 历史按时间从新到旧
+                        addPair(delta, skillId, visit.skillId, weight);
+                        addPair(delta, visit.skillId, skillId, weight);
+                    }
+                }
+                history.removeIf((visit) -> visit.skillId == skillId);
+                history.addFirst(new Visit(skillId, at));
+                while (history.size() > HISTORY_SIZE) {
+                    history.removeLast();
+                }
+            }
+        }
+        return delta;
+    }
+
+    static long toMillis(LocalDateTime time) {
+        if (time == null) return 0L;
+        return time.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static void addPair(Map<Long, Map<Long, Integer>> delta, long skillId, long neighborId, int weight) {
+        delta.computeIfAbsent(skillId, (k) -> new HashMap<>()).merge(neighborId, weight, Integer::sum);
+    }
+
+    static final class Visit {
+        final long skillId;
+        final long at;
+
+        Visit(long skillId, long at) {
+            this.skillId = skillId;
+            this.at = at;
+        }
+    }
+
+    /**
+     * 单个技能的近邻列表，按共现次数降序（同次数按 id 降序）；编码为 "id:count,id:count"。
+     */
+    static final class Neighbors {
+        final long[] ids;
+        final int[] counts;
+
+        private Neighbors(long[] ids, int[] counts) {
+            this.ids = ids;
+            this.counts = counts;
+        }
+
+        static Neighbors top(Map<Long, Integer> counts, int limit) {
+            List<Map.Entry<Long, Integer>> entries = new ArrayList<>(counts.entrySet());
+            entries.sort((a, b) -> {
+                int cmp = Integer.compare(b.getValue(), a.getValue());
+                return cmp != 0 ? cmp : Long.compare(b.getKey(), a.getKey());
+            });
+            int size = Math.min(Math.max(0, limit), entries.size());
+            long[] ids = new long[size];
+            int[] values = new int[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = entries.get(i).getKey();
+                values[i] = entries.get(i).getValue();
+            }
+            return new Neighbors(ids, values);
+        }
+
+        static Neighbors decode(String encoded) {
+            if (encoded == null || encoded.isBlank()) return new Neighbors(new long[0], new int[0]);
+            String[] parts = encoded.split(",");
+            long[] ids = new long[parts.length];
+            int[] counts = new int[parts.length];
+            int size = 0;
+            for (String part : parts) {
+                int sep = part.indexOf(':');
+                if (sep <= 0) continue;
+                try {
+                    ids[size] = Long.parseLong(part.substring(0, sep));
+                    counts[size] = Integer.parseInt(part.substring(sep + 1));
+                    size++;
+                } catch (NumberFormatException ignore) {
+                    // 跳过损坏的条目
+                }
+            }
+            return size == parts.length ? new Neighbors(ids, counts)
+                    : new Neighbors(Arrays.copyOf(ids, size), Arrays.copyOf(counts, size));
+        }
+
+        String encode() {
+            StringBuilder sb = new StringBuilder(ids.length * 24);
+            for (int i = 0; i < ids.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(ids[i]).append(':').append(counts[i]);
+            }
+            return sb.toString();
+        }
+
+        Map<Long, Integer> toMap() {
+            Map<Long, Integer> map = new HashMap<>(ids.length * 2);
+            for (int i = 0; i < ids.length; i++) {
+                map.put(ids[i], counts[i]);
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.rita.community.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.rita.community.entity.RecommendJobState;
+import com.rita.community.entity.SkillCooccurrence;
+import com.rita.community.entity.UserEvent;
+import com.rita.community.mapper.RecommendJobStateMapper;
+import com.rita.community.mapper.SkillCooccurrenceMapper;
+import com.rita.community.mapper.UserEventMapper;
+import com.rita.community.service.CacheService;
+import com.rita.community.service.CooccurrenceService;
+import com.rita.community.service.impl.CooccurrenceCounting.Neighbors;
+import com.rita.community.service.impl.CooccurrenceCounting.Visit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CooccurrenceServiceImpl
+ * 作用：技能共现模型实现。后台任务按主键水位分块读取 user_event 中的浏览/收藏行为，
+ * 同一用户在时间窗口内先后看过的两个技能互相记一次共现（收藏记 2 次），每个技能只保留共现次数最多的前 N 个近邻，
+ * 以紧凑字符串存入 skill_cooccurrence；每块的近邻合并与水位推进在同一个事务里提交，重跑不会重复累加。
+ * 全程只持有一块行为和这一块涉及的近邻行，不会把整张行为表读进内存；多实例部署时用 Redis 锁保证只有一个节点在跑，
+ * 每块开始前续期，块事务里按旧水位条件推进水位，锁意外过期时另一个节点的重复计算会整块回滚。
+ * 跑任务的节点直接把结果打进内存模型，其余节点定时按 updated_at 水位重载变化的近邻行。
+ */
+@Service
+public class CooccurrenceServiceImpl implements CooccurrenceService {
+    private static final Logger log = LoggerFactory.getLogger(CooccurrenceServiceImpl.class);
+    private static final String JOB_NAME = "skill_cooccurrence";
+    private static final String LOCK_KEY = "rec:job:cooccurrence:lock";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(10);
+    private static final int MAX_CACHED_USERS = 10_000;
+    private static final int BATCH_SIZE = 500;
+    // 重载时水位往回多看一段，兜住语句时间早于提交时间的事务；重复应用是幂等的
+    private static final Duration RELOAD_OVERLAP = Duration.ofMinutes(2);
+    private static final LocalDateTime EMPTY_WATERMARK = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final UserEventMapper userEventMapper;
+    private final SkillCooccurrenceMapper cooccurrenceMapper;
+    private final RecommendJobStateMapper jobStateMapper;
+    private final CacheService cacheService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.recommend.cooccurrence-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.recommend.cooccurrence-max-chunks-per-run:50}")
+    private int maxChunksPerRun;
+
+    @Value("${app.recommend.cooccurrence-top-n:50}")
+    private int topN;
+
+    @Value("${app.recommend.cooccurrence-window-hours:72}")
+    private long windowHours;
+
+    // 技能 id -> 近邻；值不可变，任务按技能整条替换
+    private volatile Map<Long, Neighbors> model = new ConcurrentHashMap<>();
+    private final Object reloadLock = new Object();
+    // 已载入内存的近邻行中最大的 updated_at（库时钟），null 表示还没加载过
+    private volatile LocalDateTime modelWatermark;
+
+    public CooccurrenceServiceImpl(UserEventMapper userEventMapper,
+                                   SkillCooccurrenceMapper cooccurrenceMapper,
+                                   RecommendJobStateMapper jobStateMapper,
+                                   CacheService cacheService,
+                                   TransactionTemplate transactionTemplate) {
+        this.userEventMapper = userEventMapper;
+        this.cooccurrenceMapper = cooccurrenceMapper;
+        this.jobStateMapper = jobStateMapper;
+        this.cacheService = cacheService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * 启动后按 skill_id 分批加载已落库的近邻表。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadModel() {
+        synchronized (reloadLock) {
+            try {
+                Map<Long, Neighbors> loaded = new ConcurrentHashMap<>();
+                LocalDateTime watermark = EMPTY_WATERMARK;
+                long lastSkillId = Long.MIN_VALUE;
+                while (true) {
+                    List<SkillCooccurrence> rows = cooccurrenceMapper.selectList(new LambdaQueryWrapper<SkillCooccurrence>()
+                            .gt(SkillCooccurrence::getSkillId, lastSkillId)
+                            .orderByAsc(SkillCooccurrence::getSkillId)
+                            .last("LIMIT " + BATCH_SIZE));
+                    for (SkillCooccurrence row : rows) {
+                        loaded.put(row.getSkillId(), Neighbors.decode(row.getNeighbors()));
+                        watermark = later(watermark, row.getUpdatedAt());
+                    }
+                    if (rows.size() < BATCH_SIZE) break;
+                    lastSkillId = rows.get(rows.size() - 1).getSkillId();
+                }
+                model = loaded;
+                modelWatermark = watermark;
+                log.info("Skill co-occurrence model loaded, skills={}", loaded.size());
+            } catch (Exception e) {
+                log.warn("Load skill co-occurrence model failed", e);
+            }
+        }
+    }
+
+    /**
+     * 每个节点定时重载 updated_at 不早于水位的近邻行（按 (updated_at, skill_id) 翻页），
+     * 不跑任务的节点也能跟上模型；启动加载失败时这里改做全量加载。
+     */
+    @Scheduled(fixedDelayString = "${app.recommend.cooccurrence-reload-ms:60000}",
+            initialDelayString = "${app.recommend.cooccurrence-reload-ms:60000}")
+    public void reloadChanged() {
+        if (modelWatermark == null) {
+            loadModel();
+            return;
+        }
+        synchronized (reloadLock) {
+            try {
+                LocalDateTime since = modelWatermark.minus(RELOAD_OVERLAP);
+                LocalDateTime watermark = modelWatermark;
+                LocalDateTime lastUpdatedAt = since;
+                long lastSkillId = Long.MIN_VALUE;
+                int reloaded = 0;
+                while (true) {
+                    LocalDateTime afterTime = lastUpdatedAt;
+                    long afterId = lastSkillId;
+                    List<SkillCooccurrence> rows = cooccurrenceMapper.selectList(new LambdaQueryWrapper<SkillCooccurrence>()
+                            .ge(SkillCooccurrence::getUpdatedAt, since)
+                            .and(w -> w.gt(SkillCooccurrence::getUpdatedAt, afterTime)
+                                    .or(x -> x.eq(SkillCooccurrence::getUpdatedAt, afterTime).gt(SkillCooccurrence::getSkillId, afterId)))
+                            .orderByAsc(SkillCooccurrence::getUpdatedAt)
+                            .orderByAsc(SkillCooccurrence::getSkillId)
+                            .last("LIMIT " + BATCH_SIZE));
+                    for (SkillCooccurrence row : rows) {
+                        model.put(row.getSkillId(), Neighbors.decode(row.getNeighbors()));
+                        watermark = later(watermark, row.getUpdatedAt());
+                    }
+                    reloaded += rows.size();
+                    if (rows.size() < BATCH_SIZE) break;
+                    SkillCooccurrence last = rows.get(rows.size() - 1);
+                    lastUpdatedAt = last.getUpdatedAt();
+                    lastSkillId = last.getSkillId();
+                }
+                modelWatermark = watermark;
+                if (reloaded > 0) {
+                    log.debug("Skill co-occurrence rows reloaded, rows={}, watermark={}", reloaded, watermark);
+                }
+            } catch (Exception e) {
+                log.warn("Reload skill co-occurrence model failed, keep current model", e);
+            }
+        }
+    }
+
+    @Override
+    public Set<Long> alsoViewed(Collection<Long> seedSkillIds, int limit) {
+        if (seedSkillIds == null || seedSkillIds.isEmpty() || limit <= 0) return Collections.emptySet();
+        Set<Long> seeds = new HashSet<>(seedSkillIds);
+        Map<Long, Integer> scores = new HashMap<>();
+        for (Long seed : seeds) {
+            Neighbors neighbors = model.get(seed);
+            if (neighbors == null) continue;
+            for (int i = 0; i < neighbors.ids.length; i++) {
+                if (seeds.contains(neighbors.ids[i])) continue;
+                scores.merge(neighbors.ids[i], neighbors.counts[i], Integer::sum);
+            }
+        }
+        if (scores.isEmpty()) return Collections.emptySet();
+
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort((a, b) -> {
+            int cmp = Integer.compare(b.getValue(), a.getValue());
+            return cmp != 0 ? cmp : Long.compare(b.getKey(), a.getKey());
+        });
+        Set<Long> result = new LinkedHashSet<>();
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            result.add(ranked.get(i).getKey());
+        }
+        return result;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.recommend.cooccurrence-job-ms:600000}",
+            initialDelayString = "${app.recommend.cooccurrence-job-ms:600000}")
+    public void runIncremental() {
+        String owner = UUID.randomUUID().toString();
+        if (!cacheService.tryLock(LOCK_KEY, owner, LOCK_TTL)) return;
+        try {
+            long lastEventId = loadWatermark();
+            long windowMs = Duration.ofHours(windowHours).toMillis();
+            // 只处理一分钟以前的行为，避免还没提交的小 id 事务被水位跳过
+            LocalDateTime settledBefore = LocalDateTime.now().minusMinutes(1);
+            Map<Long, Deque<Visit>> histories = newHistoryCache();
+            int processed = 0;
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                // 一次运行可能超过锁的有效期：每块前续期，续不上说明锁已丢，交给下一次运行
+                if (chunk > 0 && !cacheService.renewLock(LOCK_KEY, owner, LOCK_TTL)) {
+                    log.warn("Skill co-occurrence job lost its lock, stop at watermark={}", lastEventId);
+                    break;
+                }
+                List<UserEvent> events = userEventMapper.selectList(new LambdaQueryWrapper<UserEvent>()
+                        .gt(UserEvent::getId, lastEventId)
+                        .le(UserEvent::getCreatedAt, settledBefore)
+                        .in(UserEvent::getEventType, "view", "favorite")
+                        .orderByAsc(UserEvent::getId)
+                        .last("LIMIT " + chunkSize));
+                if (events.isEmpty()) break;
+
+                long chunkLastId = events.get(events.size() - 1).getId();
+                Map<Long, Map<Long, Integer>> delta = CooccurrenceCounting.countPairs(
+                        events, histories, (first) -> loadHistory(first.getUserId(), first), windowMs);
+                long expectedLastId = lastEventId;
+                Map<Long, Neighbors> merged = transactionTemplate.execute((status) -> {
+                    // 先推进水位：旧水位已被别的节点推进过（锁曾过期）时直接失败回滚，不会重复累加
+                    advanceWatermark(expectedLastId, chunkLastId);
+                    return mergeAndSave(delta);
+                });
+                if (merged != null) {
+                    model.putAll(merged);
+                }
+                lastEventId = chunkLastId;
+                processed += events.size();
+                if (events.size() < chunkSize) break;
+            }
+            if (processed > 0) {
+                log.info("Skill co-occurrence updated, events={}, watermark={}", processed, lastEventId);
+            }
+        } catch (Exception e) {
+            log.warn("Skill co-occurrence job failed, will resume from last watermark", e);
+        } finally {
+            cacheService.unlock(LOCK_KEY, owner);
+        }
+    }
+
+    private Deque<Visit> loadHistory(Long userId, UserEvent firstInChunk) {
+        Deque<Visit> history = new ArrayDeque<>();
+        LambdaQueryWrapper<UserEvent> query = new LambdaQueryWrapper<UserEvent>()
+                .eq(UserEvent::getUserId, userId)
+                .lt(UserEvent::getId, firstInChunk.getId())
+                .in(UserEvent::getEventType, "view", "favorite")
+                .orderByDesc(UserEvent::getCreatedAt)
+                .last("LIMIT " + CooccurrenceCounting.HISTORY_SIZE * 2);
+        if (firstInChunk.getCreatedAt() != null) {
+            query.ge(UserEvent::getCreatedAt, firstInChunk.getCreatedAt().minusHours(windowHours));
+        }
+        Set<Long> added = new HashSet<>();
+        for (UserEvent event : userEventMapper.selectList(query)) {
+            if (event.getSkillId() == null || !added.add(event.getSkillId())) continue;
+            history.addLast(new Visit(event.getSkillId(), CooccurrenceCounting.toMillis(event.getCreatedAt())));
+            if (history.size() == CooccurrenceCounting.HISTORY_SIZE) break;
+        }
+        return history;
+    }
+
+    /**
+     * 把增量合并进已落库的近邻，截断到前 topN 后写回，返回这批技能的最新近邻。
+     */
+    private Map<Long, Neighbors> mergeAndSave(Map<Long, Map<Long, Integer>> delta) {
+        Map<Long, Neighbors> result = new HashMap<>();
+        List<Long> skillIds = new ArrayList<>(delta.keySet());
+        for (int from = 0; from < skillIds.size(); from += BATCH_SIZE) {
+            List<Long> batch = skillIds.subList(from, Math.min(from + BATCH_SIZE, skillIds.size()));
+            Map<Long, SkillCooccurrence> existing = new HashMap<>();
+            for (SkillCooccurrence row : cooccurrenceMapper.selectBatchIds(batch)) {
+                existing.put(row.getSkillId(), row);
+            }
+            for (Long skillId : batch) {
+                SkillCooccurrence row = existing.get(skillId);
+                Map<Long, Integer> counts = row == null ? new HashMap<>() : Neighbors.decode(row.getNeighbors()).toMap();
+                delta.get(skillId).forEach((neighborId, count) -> counts.merge(neighborId, count, Integer::sum));
+                Neighbors neighbors = Neighbors.top(counts, topN);
+
+                SkillCooccurrence next = new SkillCooccurrence();
+                next.setSkillId(skillId);
+                next.setNeighbors(neighbors.encode());
+                // updated_at 留空，由库的 DEFAULT / ON UPDATE 按库时钟写入，与各节点重载用的水位同源
+                if (row == null) {
+                    cooccurrenceMapper.insert(next);
+                } else {
+                    cooccurrenceMapper.updateById(next);
+                }
+                result.put(skillId, neighbors);
+            }
+        }
+        return result;
+    }
+
+    private long loadWatermark() {
+        RecommendJobState state = jobStateMapper.selectById(JOB_NAME);
+        return state == null || state.getLastEventId() == null ? 0L : state.getLastEventId();
+    }
+
+    /**
+     * 水位从 expected 推进到 lastEventId；水位已不是 expected（另一个节点处理过这一块）时抛异常让事务回滚。
+     * 首次运行没有状态行时插入，并发插入由主键冲突兜底。
+     */
+    private void advanceWatermark(long expected, long lastEventId) {
+        int updated = jobStateMapper.update(null, new LambdaUpdateWrapper<RecommendJobState>()
+                .set(RecommendJobState::getLastEventId, lastEventId)
+                .eq(RecommendJobState::getJobName, JOB_NAME)
+                .eq(RecommendJobState::getLastEventId, expected));
+        if (updated > 0) return;
+        if (expected == 0L && jobStateMapper.selectById(JOB_NAME) == null) {
+            RecommendJobState state = new RecommendJobState();
+            state.setJobName(JOB_NAME);
+            state.setLastEventId(lastEventId);
+            jobStateMapper.insert(state);
+            return;
+        }
+        throw new IllegalStateException("Co-occurrence watermark moved past " + expected + ", chunk skipped");
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return b != null && b.isAfter(a) ? b : a;
+    }
+
+    private static Map<Long, Deque<Visit>> newHistoryCache() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Deque<Visit>> eldest) {
+                return size() > MAX_CACHED_USERS;
+            }
+        };
+    }
+}
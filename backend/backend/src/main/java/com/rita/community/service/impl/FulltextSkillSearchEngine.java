@@ -0,0 +1,76 @@
+package com.rita.community.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.rita.community.entity.Skill;
+import com.rita.community.mapper.SkillMapper;
+import com.rita.community.service.SkillSearchEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * FulltextSkillSearchEngine
+ * 作用：基于 skill(title, description) 上 ngram 全文索引的检索，分页 COUNT 同样走全文索引，不再全表扫描。
+ * 关键词整体作为 BOOLEAN MODE 短语匹配，语义与原来的 "标题或描述包含关键词" 一致，并按 MATCH 相关度排序。
+ * 短于 ngram_token_size 的关键词切不出词元，全文索引查不到，这类关键词退回 LIKE。
+ */
+@Service
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "fulltext", matchIfMissing = true)
+public class FulltextSkillSearchEngine implements SkillSearchEngine {
+
+    private final SkillMapper skillMapper;
+
+    @Value("${app.search.ngram-token-size:2}")
+    private int ngramTokenSize;
+
+    public FulltextSkillSearchEngine(SkillMapper skillMapper) {
+        this.skillMapper = skillMapper;
+    }
+
+    @Override
+    public IPage<Skill> search(Page<Skill> page, String keyword, String category) {
+        String text = keyword == null ? "" : keyword.trim();
+        String categoryFilter = category == null || category.isBlank() ? null : category;
+        String phrase = toPhrase(text);
+        if (phrase == null || phrase.length() - 2 < ngramTokenSize) {
+            return likeSearch(page, text, categoryFilter);
+        }
+        return skillMapper.searchFulltext(page, phrase, categoryFilter);
+    }
+
+    /**
+     * 去掉 BOOLEAN MODE 的运算符后用双引号包成短语；去完为空时返回 null。
+     */
+    static String toPhrase(String keyword) {
+        StringBuilder sb = new StringBuilder(keyword.length() + 2);
+        boolean space = false;
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if ("+-<>()~*\"@".indexOf(c) >= 0 || Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+                continue;
+            }
+            if (space) {
+                sb.append(' ');
+                space = false;
+            }
+            sb.append(c);
+        }
+        if (sb.length() == 0) return null;
+        return '"' + sb.toString() + '"';
+    }
+
+    private IPage<Skill> likeSearch(Page<Skill> page, String keyword, String category) {
+        LambdaQueryWrapper<Skill> qw = new QueryWrapper<Skill>().select(SkillMapper.LIST_COLUMNS).lambda();
+        qw.eq(Skill::getStatus, 1);
+        qw.and(w -> w.like(Skill::getTitle, keyword).or().like(Skill::getDescription, keyword));
+        if (category != null) {
+            qw.eq(Skill::getCategory, category);
+        }
+        qw.orderByDesc(Skill::getCreatedAt);
+        return skillMapper.selectPage(page, qw);
+    }
+}
@@ -0,0 +1,206 @@
+package com.rita.community.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rita.community.entity.Skill;
+import com.rita.community.entity.UserEvent;
+import com.rita.community.mapper.SkillMapper;
+import com.rita.community.mapper.UserEventMapper;
+import com.rita.community.service.CacheService;
+import com.rita.community.service.InterestProfile;
+import com.rita.community.service.InterestProfileService;
+import com.rita.community.service.SkillCatalogService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * InterestProfileServiceImpl
+ * 作用：兴趣画像实现。权重存在 Redis Hash（rec:profile:w:{userId}），最近浏览存在 List（rec:profile:r:{userId}），
+ * 读取前面加一层短 TTL 的本地缓存。新行为到达时由 Lua 脚本在 Redis 里原子地 "累加 + 截断"（衰减靠按时间放大写入的权重，
+ * 不改写旧字段），不经过本地缓存、没有读-改-写，同一用户的行为落在不同节点上也不会互相覆盖。
+ * Redis 中没有画像时，按最近 50 条行为重建一次，只在画像仍不存在时写入。
+ */
+@Service
+public class InterestProfileServiceImpl implements InterestProfileService {
+    private static final Logger log = LoggerFactory.getLogger(InterestProfileServiceImpl.class);
+    private static final int PROFILE_EVENT_LIMIT = 50;
+    private static final int MAX_ENTRIES = 20;
+    private static final int MAX_RECENT_SKILLS = 10;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final CacheService cacheService;
+    private final UserEventMapper userEventMapper;
+    private final SkillMapper skillMapper;
+    private final SkillCatalogService skillCatalogService;
+    private final Cache<Long, InterestProfile> localCache;
+    private final long halfLifeMs;
+    private final Duration redisTtl;
+
+    public InterestProfileServiceImpl(CacheService cacheService,
+                                      UserEventMapper userEventMapper,
+                                      SkillMapper skillMapper,
+                                      SkillCatalogService skillCatalogService,
+                                      @Value("${app.recommend.profile-half-life-hours:168}") long halfLifeHours,
+                                      @Value("${app.recommend.profile-ttl-days:30}") long ttlDays,
+                                      @Value("${app.recommend.profile-local-ttl-seconds:60}") long localTtlSeconds) {
+        this.cacheService = cacheService;
+        this.userEventMapper = userEventMapper;
+        this.skillMapper = skillMapper;
+        this.skillCatalogService = skillCatalogService;
+        this.halfLifeMs = Duration.ofHours(halfLifeHours).toMillis();
+        this.redisTtl = Duration.ofDays(ttlDays);
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+    }
+
+    @Override
+    public InterestProfile getProfile(Long userId) {
+        if (userId == null) return new InterestProfile();
+        InterestProfile profile = loadStored(userId);
+        if (profile != null) return profile;
+        return rebuild(userId);
+    }
+
+    @Override
+    public void recordEvent(Long userId, String eventType, Long skillId, String keyword) {
+        if (userId == null) return;
+        try {
+            String type = normalizeText(eventType).toLowerCase(Locale.ROOT);
+            String category = null;
+            String searchKeyword = null;
+            boolean viewedSkill = ("view".equals(type) || "favorite".equals(type)) && skillId != null;
+            if (viewedSkill) {
+                category = normalizeText(findCategory(skillId));
+            } else if ("search".equals(type)) {
+                searchKeyword = normalizeText(keyword);
+            }
+            boolean hasCategory = category != null && !category.isEmpty();
+            boolean hasKeyword = searchKeyword != null && !searchKeyword.isEmpty();
+            if (!viewedSkill && !hasKeyword) return;
+
+            boolean added = addEvent(userId, hasCategory ? category : null, hasKeyword ? searchKeyword : null,
+                    viewedSkill ? skillId : null);
+            if (!added && rebuildIfAbsent(userId) == null) {
+                // 别的节点抢先重建了画像，它的重建未必包含本次行为，补计一次
+                addEvent(userId, hasCategory ? category : null, hasKeyword ? searchKeyword : null,
+                        viewedSkill ? skillId : null);
+            }
+            // 本节点下次读取直接看到本次行为；其他节点的本地缓存最多晚 profile-local-ttl-seconds
+            localCache.invalidate(userId);
+        } catch (Exception e) {
+            log.warn("Update interest profile failed, userId={}, eventType={}", userId, eventType, e);
+        }
+    }
+
+    private boolean addEvent(Long userId, String category, String keyword, Long skillId) {
+        return cacheService.addInterestEvent(userId, category, keyword, skillId,
+                halfLifeMs, MAX_ENTRIES, MAX_RECENT_SKILLS, redisTtl);
+    }
+
+    private InterestProfile loadStored(Long userId) {
+        InterestProfile local = localCache.getIfPresent(userId);
+        if (local != null) return local;
+        InterestProfile remote = cacheService.getInterestProfile(userId, halfLifeMs);
+        if (remote != null) {
+            localCache.put(userId, remote);
+        }
+        return remote;
+    }
+
+    private InterestProfile rebuild(Long userId) {
+        InterestProfile built = rebuildIfAbsent(userId);
+        if (built != null) return built;
+        // 别的节点刚写入了画像，以 Redis 里的为准
+        InterestProfile stored = cacheService.getInterestProfile(userId, halfLifeMs);
+        if (stored == null) return new InterestProfile();
+        localCache.put(userId, stored);
+        return stored;
+    }
+
+    /**
+     * 冷启动：按最近 PROFILE_EVENT_LIMIT 条行为重建画像，每条行为按发生时间衰减后计入。
+     * 行为已入库，重建时自然包含刚发生的行为。
+     *
+     * @return 写入的画像；画像已被别的节点写入时返回 null
+     */
+    private InterestProfile rebuildIfAbsent(Long userId) {
+        List<UserEvent> events = userEventMapper.selectList(new LambdaQueryWrapper<UserEvent>()
+                .eq(UserEvent::getUserId, userId)
+                .orderByDesc(UserEvent::getCreatedAt)
+                .last("LIMIT " + PROFILE_EVENT_LIMIT));
+
+        Set<Long> skillIds = new HashSet<>();
+        for (UserEvent event : events) {
+            if (event.getSkillId() != null) {
+                skillIds.add(event.getSkillId());
+            }
+        }
+        Map<Long, Skill> skillMap = skillIds.isEmpty()
+                ? Collections.emptyMap()
+                : skillMapper.selectBatchIds(skillIds).stream().collect(Collectors.toMap(Skill::getId, x -> x));
+
+        long now = System.currentTimeMillis();
+        InterestProfile profile = new InterestProfile();
+        for (int i = events.size() - 1; i >= 0; i--) { // 从旧到新，最近浏览列表里新的排在前面
+            UserEvent event = events.get(i);
+            double weight = decayWeight(event.getCreatedAt(), now);
+            String eventType = normalizeText(event.getEventType()).toLowerCase(Locale.ROOT);
+            if (("view".equals(eventType) || "favorite".equals(eventType)) && event.getSkillId() != null) {
+                profile.addRecentSkill(event.getSkillId(), MAX_RECENT_SKILLS);
+                Skill skill = skillMap.get(event.getSkillId());
+                String category = skill == null ? "" : normalizeText(skill.getCategory());
+                if (!category.isEmpty()) {
+                    profile.addCategory(category, weight);
+                }
+            }
+            if ("search".equals(eventType)) {
+                String keyword = normalizeText(event.getKeyword());
+                if (!keyword.isEmpty()) {
+                    profile.addKeyword(keyword, weight);
+                }
+            }
+        }
+        profile.decayTo(now, halfLifeMs);
+        profile.trim(MAX_ENTRIES);
+        if (!cacheService.putInterestProfileIfAbsent(userId, profile, redisTtl)) {
+            return null;
+        }
+        localCache.put(userId, profile);
+        return profile;
+    }
+
+    private String findCategory(Long skillId) {
+        Skill skill = skillCatalogService.snapshot().get(skillId);
+        if (skill == null) {
+            skill = skillMapper.selectById(skillId); // 已下架的技能不在目录里
+        }
+        return skill == null ? null : skill.getCategory();
+    }
+
+    private double decayWeight(LocalDateTime time, long nowMs) {
+        if (time == null || halfLifeMs <= 0) return 1.0;
+        long age = Math.max(0L, nowMs - time.atZone(ZONE).toInstant().toEpochMilli());
+        return Math.pow(0.5, (double) age / (double) halfLifeMs);
+    }
+
+    private String normalizeText(String text) {
+        if (text == null) return "";
+        return text.trim();
+    }
+}
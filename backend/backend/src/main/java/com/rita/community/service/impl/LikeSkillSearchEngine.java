@@ -0,0 +1,40 @@
+package com.rita.community.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.rita.community.entity.Skill;
+import com.rita.community.mapper.SkillMapper;
+import com.rita.community.service.SkillSearchEngine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * LikeSkillSearchEngine
+ * 作用：LIKE '%kw%' 检索，无法走索引，只用于数据库没有全文索引（如非 MySQL 或 ngram 插件不可用）的环境。
+ * 没有相关度，按发布时间倒序。
+ */
+@Service
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "like")
+public class LikeSkillSearchEngine implements SkillSearchEngine {
+
+    private final SkillMapper skillMapper;
+
+    public LikeSkillSearchEngine(SkillMapper skillMapper) {
+        this.skillMapper = skillMapper;
+    }
+
+    @Override
+    public IPage<Skill> search(Page<Skill> page, String keyword, String category) {
+        String text = keyword == null ? "" : keyword.trim();
+        LambdaQueryWrapper<Skill> qw = new QueryWrapper<Skill>().select(SkillMapper.LIST_COLUMNS).lambda();
+        qw.eq(Skill::getStatus, 1);
+        qw.and(w -> w.like(Skill::getTitle, text).or().like(Skill::getDescription, text));
+        if (category != null && !category.isBlank()) {
+            qw.eq(Skill::getCategory, category);
+        }
+        qw.orderByDesc(Skill::getCreatedAt);
+        return skillMapper.selectPage(page, qw);
+    }
+}
@@ -0,0 +1,73 @@
+package com.rita.community.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RecommendMetrics
+ * 作用：推荐链路的 Micrometer 指标，经 Actuator 以 Prometheus 格式暴露：
+ * recommend.request{path}     整个请求耗时，path = guest_feed / snapshot / personalized / tail / empty
+ * recommend.stage{stage}      各阶段耗时：profile、guest_feed、catalog、snapshot_load、keyword_recall、kernel_build、score、hydrate
+ * recommend.requests{audience} 游客（含无画像用户）与个性化请求数
+ * recommend.candidates.scored 参与打分的候选数
+ * recommend.recall.backfill   命中不足 MIN_RECALL_SIZE、退化为全目录排序的次数
+ * recommend.cache{cache,result} 游客榜单、排序快照、打分内核的命中情况
+ */
+final class RecommendMetrics {
+    private final MeterRegistry registry;
+    private final Map<String, Timer> requestTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> cacheCounters = new ConcurrentHashMap<>();
+    private final Counter guestRequests;
+    private final Counter personalizedRequests;
+    private final Counter candidatesScored;
+    private final Counter backfill;
+
+    RecommendMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.guestRequests = Counter.builder("recommend.requests").tag("audience", "guest").register(registry);
+        this.personalizedRequests = Counter.builder("recommend.requests").tag("audience", "personalized").register(registry);
+        this.candidatesScored = Counter.builder("recommend.candidates.scored").register(registry);
+        this.backfill = Counter.builder("recommend.recall.backfill").register(registry);
+    }
+
+    /**
+     * 记录一个阶段从 startNanos 到现在的耗时，返回当前时刻，方便串接下一个阶段。
+     */
+    long stage(String stage, long startNanos) {
+        long now = System.nanoTime();
+        stageTimers.computeIfAbsent(stage, (k) -> Timer.builder("recommend.stage").tag("stage", k).register(registry))
+                .record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    <T> T finish(String path, long startNanos, T resp) {
+        requestTimers.computeIfAbsent(path, (k) -> Timer.builder("recommend.request").tag("path", k).register(registry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return resp;
+    }
+
+    void request(boolean personalized) {
+        (personalized ? personalizedRequests : guestRequests).increment();
+    }
+
+    void candidates(int count) {
+        candidatesScored.increment(count);
+    }
+
+    void backfill() {
+        backfill.increment();
+    }
+
+    void cache(String cache, boolean hit) {
+        String result = hit ? "hit" : "miss";
+        cacheCounters.computeIfAbsent(cache + ':' + result,
+                        (k) -> Counter.builder("recommend.cache").tag("cache", cache).tag("result", result).register(registry))
+                .increment();
+    }
+}
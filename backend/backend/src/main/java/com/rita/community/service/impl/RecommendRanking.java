@@ -0,0 +1,192 @@
+package com.rita.community.service.impl;
+
+import com.rita.community.entity.Skill;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * RecommendRanking
+ * 作用：推荐排序与游标分页工具。排序规则为 score 降序 → createdEpoch 降序 → skillId 降序，
+ * 分页时用大小为 k 的有界堆只保留游标之后的前 k 个，复杂度 O(n log k)，不再全量排序和拷贝。
+ * 个性化推荐的首页结果另存为 RankSnapshot，后续页用 SnapshotCursor 按偏移切片。
+ */
+final class RecommendRanking {
+    private static final double SCORE_EPSILON = 1e-9;
+
+    static final Comparator<ScoredSkill> ORDER = (a, b) ->
+            compare(a.score, a.createdEpoch, a.skillId, b.score, b.createdEpoch, b.skillId);
+
+    private RecommendRanking() {
+    }
+
+    /**
+     * 从候选集中选出游标之后排名最靠前的 k 个，结果已按 ORDER 排好序。
+     */
+    static TopK selectAfter(Collection<ScoredSkill> candidates, CursorKey cursor, int k) {
+        PriorityQueue<ScoredSkill> heap = new PriorityQueue<>(k + 1, ORDER.reversed()); // 堆顶是当前第 k 名
+        int afterCursor = 0;
+        for (ScoredSkill item : candidates) {
+            if (cursor != null && !isAfterCursor(item, cursor)) continue;
+            afterCursor++;
+            if (heap.size() < k) {
+                heap.offer(item);
+            } else if (ORDER.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.offer(item);
+            }
+        }
+        List<ScoredSkill> items = new ArrayList<>(heap);
+        items.sort(ORDER);
+        return new TopK(items, afterCursor > items.size(), candidates.size());
+    }
+
+    static boolean isAfterCursor(ScoredSkill scored, CursorKey cursor) {
+        return isAfterCursor(scored.score, scored.createdEpoch, scored.skillId, cursor);
+    }
+
+    /**
+     * 基本类型版本，供打分内核在不创建 ScoredSkill 的情况下过滤游标。
+     */
+    static boolean isAfterCursor(double score, long createdEpoch, long skillId, CursorKey cursor) {
+        if (score < cursor.score - SCORE_EPSILON) return true;
+        if (Math.abs(score - cursor.score) <= SCORE_EPSILON) {
+            if (createdEpoch < cursor.createdEpoch) return true;
+            if (createdEpoch == cursor.createdEpoch) {
+                return skillId < cursor.skillId;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 与 ORDER 相同的比较规则，a 排在 b 前面时返回负数。
+     */
+    static int compare(double scoreA, long epochA, long idA, double scoreB, long epochB, long idB) {
+        int scoreCmp = Double.compare(scoreB, scoreA);
+        if (scoreCmp != 0) return scoreCmp;
+        int timeCmp = Long.compare(epochB, epochA);
+        if (timeCmp != 0) return timeCmp;
+        return Long.compare(idB, idA);
+    }
+
+    static String toCursor(ScoredSkill scored) {
+        return String.format(Locale.ROOT, "%.6f|%d|%d", scored.score, scored.createdEpoch, scored.skillId);
+    }
+
+    /**
+     * 个性化推荐的排序快照，存 Redis；不能声明为 final，否则 Redis 序列化不会写入类型信息。
+     */
+    static class RankSnapshot {
+        private long[] ids = new long[0];
+        private String tailCursor; // 快照被截断时，接着用分数游标继续翻页
+
+        static RankSnapshot of(TopK ranked) {
+            RankSnapshot snapshot = new RankSnapshot();
+            snapshot.ids = new long[ranked.items.size()];
+            for (int i = 0; i < ranked.items.size(); i++) {
+                snapshot.ids[i] = ranked.items.get(i).skillId;
+            }
+            if (ranked.hasMore && !ranked.items.isEmpty()) {
+                snapshot.tailCursor = toCursor(ranked.items.get(ranked.items.size() - 1));
+            }
+            return snapshot;
+        }
+
+        long[] getIds() {
+            return ids;
+        }
+
+        String getTailCursor() {
+            return tailCursor;
+        }
+    }
+
+    /**
+     * 快照游标：s:{token}:{offset}。
+     */
+    static final class SnapshotCursor {
+        private static final String PREFIX = "s:";
+
+        final String token;
+        final int offset;
+
+        private SnapshotCursor(String token, int offset) {
+            this.token = token;
+            this.offset = offset;
+        }
+
+        static String format(String token, int offset) {
+            return PREFIX + token + ":" + offset;
+        }
+
+        static SnapshotCursor parse(String raw) {
+            if (raw == null || !raw.startsWith(PREFIX)) return null;
+            int sep = raw.lastIndexOf(':');
+            if (sep <= PREFIX.length()) return null;
+            try {
+                String token = raw.substring(PREFIX.length(), sep);
+                int offset = Integer.parseInt(raw.substring(sep + 1));
+                return offset < 0 ? null : new SnapshotCursor(token, offset);
+            } catch (Exception ignore) {
+                return null;
+            }
+        }
+    }
+
+    static final class TopK {
+        final List<ScoredSkill> items;
+        final boolean hasMore;
+        final int candidates; // 参与打分的候选数
+
+        TopK(List<ScoredSkill> items, boolean hasMore, int candidates) {
+            this.items = items;
+            this.hasMore = hasMore;
+            this.candidates = candidates;
+        }
+    }
+
+    static final class ScoredSkill {
+        final Skill skill;
+        final long skillId;
+        final double score;
+        final long createdEpoch;
+
+        ScoredSkill(Skill skill, long skillId, double score, long createdEpoch) {
+            this.skill = skill;
+            this.skillId = skillId;
+            this.score = score;
+            this.createdEpoch = createdEpoch;
+        }
+    }
+
+    static final class CursorKey {
+        final double score;
+        final long createdEpoch;
+        final long skillId;
+
+        CursorKey(double score, long createdEpoch, long skillId) {
+            this.score = score;
+            this.createdEpoch = createdEpoch;
+            this.skillId = skillId;
+        }
+
+        static CursorKey parse(String raw) {
+            if (raw == null || raw.isBlank()) return null;
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) return null;
+            try {
+                double score = Double.parseDouble(parts[0]);
+                long createdEpoch = Long.parseLong(parts[1]);
+                long skillId = Long.parseLong(parts[2]);
+                return new CursorKey(score, createdEpoch, skillId);
+            } catch (Exception ignore) {
+                return null;
+            }
+        }
+    }
+}
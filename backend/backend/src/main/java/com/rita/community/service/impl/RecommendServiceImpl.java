@@ -5,245 +5,355 @@ import com.rita.community.dto.RecommendPageResp;
 import com.rita.community.dto.SkillListItemResp;
 import com.rita.community.entity.Skill;
 import com.rita.community.entity.User;
-import com.rita.community.entity.UserEvent;
 import com.rita.community.mapper.SkillMapper;
-import com.rita.community.mapper.UserEventMapper;
 import com.rita.community.mapper.UserMapper;
+import com.rita.community.service.CacheService;
+import com.rita.community.service.CooccurrenceService;
+import com.rita.community.service.InterestProfile;
+import com.rita.community.service.InterestProfileService;
 import com.rita.community.service.RecommendService;
+import com.rita.community.service.SkillCatalogService;
+import com.rita.community.service.SkillCatalogSnapshot;
+import com.rita.community.service.UniqueViewerService;
+import com.rita.community.service.impl.RecommendRanking.CursorKey;
+import com.rita.community.service.impl.RecommendRanking.RankSnapshot;
+import com.rita.community.service.impl.RecommendRanking.SnapshotCursor;
+import com.rita.community.service.impl.RecommendRanking.ScoredSkill;
+import com.rita.community.service.impl.RecommendRanking.TopK;
+import com.rita.community.util.ConditionalGet;
+import com.rita.community.util.TextSnippet;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * RecommendServiceImpl
  * 作用：推荐业务实现，基于用户行为与技能特征计算推荐结果。
+ * 游客（以及没有兴趣画像的用户）的 "热门 + 新鲜" 榜单由后台任务定期预计算，请求直接分页返回；
+ * 个性化推荐首页把排好序的 id 列表存成短期快照（rec:snap:{token}），后续页只切片 + 组装，翻页期间顺序稳定。
+ * 各阶段耗时与命中情况见 RecommendMetrics。
  */
 @Service
 public class RecommendServiceImpl implements RecommendService {
     private static final Logger log = LoggerFactory.getLogger(RecommendServiceImpl.class);
-    private static final int PROFILE_EVENT_LIMIT = 50;
     private static final int DEFAULT_PAGE_SIZE = 20;
     private static final int MAX_PAGE_SIZE = 50;
-    private static final int MIN_RECALL_SIZE = 20;
-    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final int SNAPSHOT_MAX_ITEMS = 500;
+    private static final int CO_VIEW_RECALL_SIZE = 100;
+    private static final String KEY_RANK_SNAPSHOT = "rec:snap:";
 
-    private final SkillMapper skillMapper;
     private final UserMapper userMapper;
-    private final UserEventMapper userEventMapper;
-
-    public RecommendServiceImpl(SkillMapper skillMapper, UserMapper userMapper, UserEventMapper userEventMapper) {
-        this.skillMapper = skillMapper;
+    private final SkillCatalogService skillCatalogService;
+    private final InterestProfileService interestProfileService;
+    private final CacheService cacheService;
+    private final CooccurrenceService cooccurrenceService;
+    private final UniqueViewerService uniqueViewerService;
+    private final RecommendMetrics metrics;
+    private final Object guestFeedLock = new Object();
+
+    @Value("${app.recommend.guest-feed-max-items:1000}")
+    private int guestFeedMaxItems;
+
+    @Value("${app.recommend.snapshot-ttl-seconds:600}")
+    private int snapshotTtlSeconds;
+
+    private volatile GuestFeed guestFeed;
+    private volatile ScoringKernel scoringKernel;
+
+    public RecommendServiceImpl(UserMapper userMapper,
+                                SkillCatalogService skillCatalogService,
+                                InterestProfileService interestProfileService,
+                                CacheService cacheService,
+                                CooccurrenceService cooccurrenceService,
+                                UniqueViewerService uniqueViewerService,
+                                MeterRegistry meterRegistry) {
         this.userMapper = userMapper;
-        this.userEventMapper = userEventMapper;
+        this.skillCatalogService = skillCatalogService;
+        this.interestProfileService = interestProfileService;
+        this.cacheService = cacheService;
+        this.cooccurrenceService = cooccurrenceService;
+        this.uniqueViewerService = uniqueViewerService;
+        this.metrics = new RecommendMetrics(meterRegistry);
     }
 
     @Override
     public RecommendPageResp recommend(Long userId, String cursor, Integer size) {
+        long start = System.nanoTime();
         int pageSize = normalizePageSize(size);
 
-        List<Skill> activeSkills = skillMapper.selectList(new LambdaQueryWrapper<Skill>()
-                .eq(Skill::getStatus, 1));
-        if (activeSkills.isEmpty()) {
-            return new RecommendPageResp();
+        // 画像由行为事件增量维护，这里只读一次
+        InterestTags profile = buildTags(userId);
+        long t = metrics.stage("profile", start);
+        metrics.request(profile.hasInterest());
+        if (!profile.hasInterest()) {
+            RecommendPageResp fromFeed = pageFromGuestFeed(cursor, pageSize);
+            t = metrics.stage("guest_feed", t);
+            if (fromFeed != null) return metrics.finish("guest_feed", start, fromFeed);
         }
 
-        InterestProfile profile = buildProfile(userId);
-        if (userId != null) {
-            log.info("User {} interest tags => categories: {}, keywords: {}", userId, profile.topCategories, profile.topKeywords);
-        } else {
-            log.info("Guest recommend fallback => hot + fresh");
+        // 上架技能来自进程内目录快照，不再每次请求全表查询
+        SkillCatalogSnapshot catalog = skillCatalogService.snapshot();
+        t = metrics.stage("catalog", t);
+        if (catalog.isEmpty()) {
+            return metrics.finish("empty", start, new RecommendPageResp());
         }
 
-        List<ScoredSkill> scored = scoreSkills(activeSkills, profile);
-        scored.sort((a, b) -> {
-            int scoreCmp = Double.compare(b.score, a.score);
-            if (scoreCmp != 0) return scoreCmp;
-            int timeCmp = Long.compare(b.createdEpoch, a.createdEpoch);
-            if (timeCmp != 0) return timeCmp;
-            return Long.compare(b.skillId, a.skillId);
-        });
+        // 后续页：直接按快照里的排序切片，不再重新打分
+        SnapshotCursor snapshotCursor = SnapshotCursor.parse(cursor);
+        if (snapshotCursor != null) {
+            RankSnapshot snapshot = cacheService.get(KEY_RANK_SNAPSHOT + snapshotCursor.token, RankSnapshot.class);
+            t = metrics.stage("snapshot_load", t);
+            metrics.cache("rank_snapshot", snapshot != null);
+            if (snapshot != null) {
+                RecommendPageResp resp = pageFromSnapshot(snapshotCursor.token, snapshot, snapshotCursor.offset, pageSize, catalog);
+                return metrics.finish("snapshot", start, resp);
+            }
+        }
 
-        CursorKey cursorKey = CursorKey.parse(cursor);
-        if (cursorKey != null) {
-            scored = scored.stream().filter((item) -> isAfterCursor(item, cursorKey)).collect(Collectors.toList());
+        // 每个请求都会走到这里，只在 debug 级别输出，避免热路径上的日志 I/O
+        if (log.isDebugEnabled()) {
+            if (userId != null) {
+                log.debug("User {} interest tags => categories: {}, keywords: {}, coViewed: {}",
+                        userId, profile.topCategories, profile.topKeywords, profile.coViewedIds.size());
+            } else {
+                log.debug("Guest recommend fallback => hot + fresh");
+            }
         }
 
-        int end = Math.min(pageSize, scored.size());
-        List<ScoredSkill> pageItems = end == 0 ? Collections.emptyList() : scored.subList(0, end);
-        Map<Long, User> sellerMap = loadSellerMap(pageItems);
+        // 关键词召回走倒排索引，每个请求只求一次命中集合
+        Set<Long> keywordMatchedIds = profile.topKeywords.isEmpty()
+                ? Collections.emptySet()
+                : skillCatalogService.keywordIndex().match(profile.topKeywords);
+        t = metrics.stage("keyword_recall", t);
+        ScoringKernel kernel = kernelFor(catalog);
+        t = metrics.stage("kernel_build", t);
+        ScoringKernel.Query query = kernel.query(profile.hasInterest(), profile.topCategories, keywordMatchedIds,
+                profile.coViewedIds);
+        if (query.isBackfill()) {
+            metrics.backfill();
+        }
 
-        RecommendPageResp resp = new RecommendPageResp();
-        List<SkillListItemResp> items = new ArrayList<>();
-        for (ScoredSkill item : pageItems) {
-            items.add(toListItem(item.skill, sellerMap.get(item.skill.getUserId())));
+        CursorKey cursorKey = CursorKey.parse(cursor);
+        if (cursorKey == null) {
+            // 首页（或快照已过期）：排好前 SNAPSHOT_MAX_ITEMS 个存成快照，过期时从原偏移继续
+            int offset = snapshotCursor == null ? 0 : snapshotCursor.offset;
+            TopK ranked = kernel.select(query, null, SNAPSHOT_MAX_ITEMS);
+            metrics.stage("score", t);
+            metrics.candidates(ranked.candidates);
+            RankSnapshot snapshot = RankSnapshot.of(ranked);
+            String token = saveSnapshot(snapshot);
+            return metrics.finish("personalized", start, pageFromSnapshot(token, snapshot, offset, pageSize, catalog));
         }
-        resp.setItems(items);
 
-        if (scored.size() > end && !pageItems.isEmpty()) {
-            resp.setNextCursor(toCursor(pageItems.get(pageItems.size() - 1)));
+        // 快照之后的长尾：沿用分数游标，有界堆选出游标之后的一页
+        TopK page = kernel.select(query, cursorKey, pageSize);
+        metrics.stage("score", t);
+        metrics.candidates(page.candidates);
+        List<Skill> pageSkills = new ArrayList<>(page.items.size());
+        for (ScoredSkill item : page.items) {
+            pageSkills.add(item.skill);
+        }
+
+        RecommendPageResp resp = new RecommendPageResp();
+        resp.setItems(toListItems(pageSkills));
+        if (page.hasMore && !page.items.isEmpty()) {
+            resp.setNextCursor(RecommendRanking.toCursor(page.items.get(page.items.size() - 1)));
         } else {
             resp.setNextCursor(null);
         }
-        return resp;
+        return metrics.finish("tail", start, resp);
     }
 
-    private int normalizePageSize(Integer size) {
-        if (size == null || size <= 0) return DEFAULT_PAGE_SIZE;
-        return Math.min(size, MAX_PAGE_SIZE);
+    private String saveSnapshot(RankSnapshot snapshot) {
+        String token = UUID.randomUUID().toString().replace("-", "");
+        try {
+            cacheService.set(KEY_RANK_SNAPSHOT + token, snapshot, Duration.ofSeconds(snapshotTtlSeconds));
+        } catch (Exception e) {
+            // 写失败不影响本页，下一页会按偏移重新排序
+            log.warn("Save recommend snapshot failed", e);
+        }
+        return token;
     }
 
-    private InterestProfile buildProfile(Long userId) {
-        if (userId == null) return InterestProfile.empty();
-
-        List<UserEvent> events = userEventMapper.selectList(new LambdaQueryWrapper<UserEvent>()
-                .eq(UserEvent::getUserId, userId)
-                .orderByDesc(UserEvent::getCreatedAt)
-                .last("LIMIT " + PROFILE_EVENT_LIMIT));
-        if (events.isEmpty()) return InterestProfile.empty();
-
-        Set<Long> skillIds = new HashSet<>();
-        for (UserEvent event : events) {
-            if (event.getSkillId() != null) {
-                skillIds.add(event.getSkillId());
+    private RecommendPageResp pageFromSnapshot(String token, RankSnapshot snapshot, int offset,
+                                               int pageSize, SkillCatalogSnapshot catalog) {
+        long[] ids = snapshot.getIds();
+        int from = Math.min(Math.max(0, offset), ids.length);
+        int to = Math.min(from + pageSize, ids.length);
+
+        List<Skill> pageSkills = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            Skill skill = catalog.get(ids[i]);
+            if (skill != null) { // 期间下架的技能直接跳过
+                pageSkills.add(skill);
             }
         }
 
-        Map<Long, Skill> skillMap = skillIds.isEmpty()
-                ? Collections.emptyMap()
-                : skillMapper.selectBatchIds(skillIds).stream().collect(Collectors.toMap(Skill::getId, x -> x));
-
-        Map<String, Integer> categoryCounter = new HashMap<>();
-        Map<String, Integer> keywordCounter = new HashMap<>();
-
-        for (UserEvent event : events) {
-            String eventType = normalizeText(event.getEventType()).toLowerCase(Locale.ROOT);
-            if (("view".equals(eventType) || "favorite".equals(eventType)) && event.getSkillId() != null) {
-                Skill skill = skillMap.get(event.getSkillId());
-                String category = skill == null ? "" : normalizeText(skill.getCategory());
-                if (!category.isEmpty()) {
-                    categoryCounter.merge(category, 1, Integer::sum);
-                }
-            }
-            if ("search".equals(eventType)) {
-                String keyword = normalizeText(event.getKeyword());
-                if (!keyword.isEmpty()) {
-                    keywordCounter.merge(keyword, 1, Integer::sum);
-                }
-            }
+        RecommendPageResp resp = new RecommendPageResp();
+        resp.setItems(toListItems(pageSkills));
+        if (to < ids.length) {
+            resp.setNextCursor(SnapshotCursor.format(token, to));
+        } else {
+            resp.setNextCursor(snapshot.getTailCursor());
         }
+        return resp;
+    }
 
-        List<String> topCategories = pickTopKeys(categoryCounter, 3);
-        List<String> topKeywords = pickTopKeys(keywordCounter, 3);
-        return new InterestProfile(topCategories, topKeywords);
+    /**
+     * 预计算游客榜单：全目录按 0.6 * hot + 0.4 * fresh 排序取前 guestFeedMaxItems 个，连同卖家信息一起组装好。
+     * 刷新间隔即榜单最大陈旧时间，由 app.recommend.guest-feed-refresh-ms 控制。
+     */
+    @Scheduled(fixedDelayString = "${app.recommend.guest-feed-refresh-ms:30000}")
+    public void refreshGuestFeed() {
+        try {
+            GuestFeed feed = buildGuestFeed();
+            synchronized (guestFeedLock) {
+                guestFeed = feed;
+            }
+        } catch (Exception e) {
+            log.warn("Guest feed refresh failed, keep previous feed", e);
+        }
     }
 
-    private List<String> pickTopKeys(Map<String, Integer> counter, int limit) {
-        return counter.entrySet().stream()
-                .sorted(Comparator.<Map.Entry<String, Integer>>comparingInt(Map.Entry::getValue).reversed()
-                        .thenComparing(Map.Entry::getKey))
-                .limit(limit)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+    /**
+     * 游客榜单的版本：榜单顺序 + 卡片内容（更新时间、状态、卖家资料）的摘要，内容不变的重建在任何节点都得到同一个版本，用作游客推荐页的 ETag。
+     */
+    @Override
+    public String guestFeedTag() {
+        return currentGuestFeed().tag;
     }
 
-    private List<ScoredSkill> scoreSkills(List<Skill> skills, InterestProfile profile) {
-        boolean hasInterest = profile.hasInterest();
+    private GuestFeed currentGuestFeed() {
+        GuestFeed feed = guestFeed;
+        metrics.cache("guest_feed", feed != null);
+        if (feed != null) return feed;
+        synchronized (guestFeedLock) {
+            if (guestFeed == null) {
+                guestFeed = buildGuestFeed();
+            }
+            return guestFeed;
+        }
+    }
 
-        long newest = Long.MIN_VALUE;
-        long oldest = Long.MAX_VALUE;
-        int maxViewCount = 0;
-        for (Skill skill : skills) {
-            long epoch = toEpoch(skill.getCreatedAt());
-            newest = Math.max(newest, epoch);
-            oldest = Math.min(oldest, epoch);
-            maxViewCount = Math.max(maxViewCount, safeViewCount(skill));
+    private GuestFeed buildGuestFeed() {
+        ScoringKernel kernel = kernelFor(skillCatalogService.snapshot());
+        ScoringKernel.Query query = kernel.query(false, Collections.emptyList(), Collections.emptySet());
+        TopK top = kernel.select(query, null, Math.max(1, guestFeedMaxItems));
+        List<Skill> skills = new ArrayList<>(top.items.size());
+        for (ScoredSkill item : top.items) {
+            skills.add(item.skill);
+        }
+        List<SkillListItemResp> items = toListItems(skills);
+        // 只用榜单内容算版本：kernel.version() 是各节点自己的计数，拼进去的话同一份榜单在不同节点 ETag 不同
+        Object[] parts = new Object[1 + items.size() * 5];
+        int p = 0;
+        parts[p++] = top.hasMore;
+        for (SkillListItemResp item : items) {
+            parts[p++] = item.getId();
+            parts[p++] = item.getUpdatedAt();
+            parts[p++] = item.getStatus();
+            parts[p++] = item.getSellerNickname();
+            parts[p++] = item.getSellerCreditScore();
         }
-        if (newest == Long.MIN_VALUE) newest = 0;
-        if (oldest == Long.MAX_VALUE) oldest = 0;
+        return new GuestFeed(top.items, items, top.hasMore, ConditionalGet.digest(parts));
+    }
 
-        Set<Long> includedIds = new HashSet<>();
-        List<ScoredSkill> scored = new ArrayList<>();
+    /**
+     * 从预计算榜单分页，游标语义与实时计算一致；榜单被截断且已翻到末尾时返回 null，交给实时计算。
+     */
+    private RecommendPageResp pageFromGuestFeed(String cursor, int pageSize) {
+        GuestFeed feed = currentGuestFeed();
+        CursorKey cursorKey = CursorKey.parse(cursor);
 
-        for (Skill skill : skills) {
-            boolean categoryMatched = containsCategory(profile.topCategories, skill.getCategory());
-            boolean keywordMatched = containsKeyword(profile.topKeywords, skill);
-            if (hasInterest && !(categoryMatched || keywordMatched)) {
-                continue;
+        List<SkillListItemResp> items = new ArrayList<>();
+        ScoredSkill last = null;
+        boolean hasMore = false;
+        for (int i = 0; i < feed.ranked.size(); i++) {
+            ScoredSkill item = feed.ranked.get(i);
+            if (cursorKey != null && !RecommendRanking.isAfterCursor(item, cursorKey)) continue;
+            if (items.size() == pageSize) {
+                hasMore = true;
+                break;
             }
-            ScoredSkill item = scoreOne(skill, hasInterest, categoryMatched, keywordMatched, maxViewCount, newest, oldest);
-            scored.add(item);
-            includedIds.add(item.skillId);
+            items.add(feed.items.get(i));
+            last = item;
         }
+        if (!hasMore && feed.truncated) return null;
 
-        if (hasInterest && scored.size() < MIN_RECALL_SIZE) {
-            for (Skill skill : skills) {
-                Long id = skill.getId();
-                if (id == null || includedIds.contains(id)) continue;
-                boolean categoryMatched = containsCategory(profile.topCategories, skill.getCategory());
-                boolean keywordMatched = containsKeyword(profile.topKeywords, skill);
-                scored.add(scoreOne(skill, true, categoryMatched, keywordMatched, maxViewCount, newest, oldest));
-            }
-        }
+        RecommendPageResp resp = new RecommendPageResp();
+        resp.setItems(items);
+        resp.setNextCursor(hasMore ? RecommendRanking.toCursor(last) : null);
+        return resp;
+    }
 
-        return scored;
+    private int normalizePageSize(Integer size) {
+        if (size == null || size <= 0) return DEFAULT_PAGE_SIZE;
+        return Math.min(size, MAX_PAGE_SIZE);
     }
 
-    private ScoredSkill scoreOne(
-            Skill skill,
-            boolean hasInterest,
-            boolean categoryMatched,
-            boolean keywordMatched,
-            int maxViewCount,
-            long newest,
-            long oldest
-    ) {
-        int viewCount = safeViewCount(skill);
-        double hotScore = maxViewCount > 0 ? (double) viewCount / (double) maxViewCount : 0.0;
-
-        long createdEpoch = toEpoch(skill.getCreatedAt());
-        double freshnessScore;
-        if (newest <= oldest) {
-            freshnessScore = 1.0;
-        } else {
-            freshnessScore = (double) (createdEpoch - oldest) / (double) (newest - oldest);
-            freshnessScore = Math.max(0.0, Math.min(1.0, freshnessScore));
-        }
+    private InterestTags buildTags(Long userId) {
+        if (userId == null) return InterestTags.empty();
+        InterestProfile profile = interestProfileService.getProfile(userId);
+        // 最近看过的技能作为种子，从共现模型召回 "看过的人还看了"
+        Set<Long> coViewedIds = cooccurrenceService.alsoViewed(profile.getRecentSkills(), CO_VIEW_RECALL_SIZE);
+        if (!profile.hasInterest() && coViewedIds.isEmpty()) return InterestTags.empty();
+        return new InterestTags(profile.topCategories(3), profile.topKeywords(3), coViewedIds);
+    }
 
-        double score;
-        if (!hasInterest) {
-            score = 0.6 * hotScore + 0.4 * freshnessScore;
-        } else {
-            double categorySignal = categoryMatched ? 1.0 : (keywordMatched ? 0.8 : 0.0);
-            score = 0.5 * categorySignal + 0.3 * hotScore + 0.2 * freshnessScore;
+    /**
+     * 打分内核按目录版本与去重访客统计缓存，任一变化后的第一次请求重建。
+     * 热度用去重访客数，还没有统计结果（刚上线、Redis 无数据）时退回浏览量。
+     */
+    private ScoringKernel kernelFor(SkillCatalogSnapshot catalog) {
+        Map<Long, Long> viewers = uniqueViewerService.windowCounts();
+        if (viewers.isEmpty()) viewers = null;
+        ScoringKernel kernel = scoringKernel;
+        boolean hit = kernel != null && kernel.builtFrom(catalog.getVersion(), viewers);
+        metrics.cache("scoring_kernel", hit);
+        if (!hit) {
+            kernel = ScoringKernel.build(catalog.getVersion(), catalog.getSkills(), viewers);
+            scoringKernel = kernel;
         }
+        return kernel;
+    }
 
-        Long id = skill.getId();
-        return new ScoredSkill(skill, id == null ? 0L : id, score, createdEpoch);
+    private List<SkillListItemResp> toListItems(List<Skill> skills) {
+        long start = System.nanoTime();
+        Map<Long, User> sellerMap = loadSellerMap(skills);
+        List<SkillListItemResp> items = new ArrayList<>(skills.size());
+        for (Skill skill : skills) {
+            items.add(toListItem(skill, sellerMap.get(skill.getUserId())));
+        }
+        metrics.stage("hydrate", start);
+        return items;
     }
 
-    private Map<Long, User> loadSellerMap(List<ScoredSkill> scoredSkills) {
+    private Map<Long, User> loadSellerMap(List<Skill> skills) {
         Set<Long> userIds = new HashSet<>();
-        for (ScoredSkill scored : scoredSkills) {
-            if (scored.skill.getUserId() != null) {
-                userIds.add(scored.skill.getUserId());
+        for (Skill skill : skills) {
+            if (skill.getUserId() != null) {
+                userIds.add(skill.getUserId());
             }
         }
         if (userIds.isEmpty()) return Collections.emptyMap();
-        return userMapper.selectBatchIds(userIds).stream().collect(Collectors.toMap(User::getId, x -> x));
+        // 卡片只展示卖家昵称和信用分
+        return userMapper.selectList(new LambdaQueryWrapper<User>()
+                        .select(User::getId, User::getNickname, User::getCreditScore)
+                        .in(User::getId, userIds))
+                .stream().collect(Collectors.toMap(User::getId, x -> x));
     }
 
     private SkillListItemResp toListItem(Skill skill, User seller) {
@@ -251,7 +361,7 @@ public class RecommendServiceImpl implements RecommendService {
         item.setId(skill.getId());
         item.setUserId(skill.getUserId());
         item.setTitle(skill.getTitle());
-        item.setDescription(skill.getDescription());
+        item.setDescription(TextSnippet.of(skill.getDescription(), SkillMapper.DESCRIPTION_SNIPPET_LENGTH));
         item.setCategory(skill.getCategory());
         item.setPrice(skill.getPrice());
         item.setStatus(skill.getStatus());
@@ -264,118 +374,46 @@ public class RecommendServiceImpl implements RecommendService {
         item.setAdcode(skill.getAdcode());
         item.setCityName(skill.getCityName());
         item.setViewCount(skill.getViewCount());
+        item.setUniqueViewers(uniqueViewerService.uniqueViewers(skill.getId()));
         item.setSellerNickname(seller == null ? "User" : seller.getNickname());
         item.setSellerCreditScore(seller == null ? 0 : seller.getCreditScore());
         return item;
     }
 
-    private boolean containsCategory(List<String> categories, String category) {
-        String target = normalizeText(category);
-        if (target.isEmpty()) return false;
-        for (String c : categories) {
-            if (Objects.equals(c, target)) return true;
-        }
-        return false;
-    }
-
-    private boolean containsKeyword(List<String> keywords, Skill skill) {
-        if (keywords.isEmpty()) return false;
-        String title = normalizeText(skill.getTitle()).toLowerCase(Locale.ROOT);
-        String desc = normalizeText(skill.getDescription()).toLowerCase(Locale.ROOT);
-        for (String raw : keywords) {
-            String keyword = normalizeText(raw).toLowerCase(Locale.ROOT);
-            if (keyword.isEmpty()) continue;
-            if (title.contains(keyword) || desc.contains(keyword)) return true;
+    /**
+     * 预计算的游客榜单，ranked 与 items 按下标一一对应；items 被所有请求共享，只读。
+     */
+    private static final class GuestFeed {
+        private final List<ScoredSkill> ranked;
+        private final List<SkillListItemResp> items;
+        private final boolean truncated;
+        private final String tag;
+
+        private GuestFeed(List<ScoredSkill> ranked, List<SkillListItemResp> items, boolean truncated, String tag) {
+            this.ranked = ranked;
+            this.items = items;
+            this.truncated = truncated;
+            this.tag = tag;
         }
-        return false;
-    }
-
-    private int safeViewCount(Skill skill) {
-        return skill.getViewCount() == null ? 0 : Math.max(0, skill.getViewCount());
-    }
-
-    private long toEpoch(LocalDateTime time) {
-        if (time == null) return 0L;
-        return time.atZone(ZONE).toInstant().toEpochMilli();
     }
 
-    private String normalizeText(String text) {
-        if (text == null) return "";
-        return text.trim();
-    }
-
-    private String toCursor(ScoredSkill scored) {
-        return String.format(Locale.ROOT, "%.6f|%d|%d", scored.score, scored.createdEpoch, scored.skillId);
-    }
-
-    private boolean isAfterCursor(ScoredSkill scored, CursorKey cursor) {
-        if (scored.score < cursor.score - 1e-9) return true;
-        if (Math.abs(scored.score - cursor.score) <= 1e-9) {
-            if (scored.createdEpoch < cursor.createdEpoch) return true;
-            if (scored.createdEpoch == cursor.createdEpoch) {
-                return scored.skillId < cursor.skillId;
-            }
-        }
-        return false;
-    }
-
-    private static final class InterestProfile {
+    private static final class InterestTags {
         private final List<String> topCategories;
         private final List<String> topKeywords;
+        private final Set<Long> coViewedIds;
 
-        private InterestProfile(List<String> topCategories, List<String> topKeywords) {
+        private InterestTags(List<String> topCategories, List<String> topKeywords, Set<Long> coViewedIds) {
             this.topCategories = topCategories;
             this.topKeywords = topKeywords;
+            this.coViewedIds = coViewedIds;
         }
 
-        private static InterestProfile empty() {
-            return new InterestProfile(Collections.emptyList(), Collections.emptyList());
+        private static InterestTags empty() {
+            return new InterestTags(Collections.emptyList(), Collections.emptyList(), Collections.emptySet());
         }
 
         private boolean hasInterest() {
-            return !topCategories.isEmpty() || !topKeywords.isEmpty();
-        }
-    }
-
-    private static final class ScoredSkill {
-        private final Skill skill;
-        private final long skillId;
-        private final double score;
-        private final long createdEpoch;
-
-        private ScoredSkill(Skill skill, long skillId, double score, long createdEpoch) {
-            this.skill = skill;
-            this.skillId = skillId;
-            this.score = score;
-            this.createdEpoch = createdEpoch;
-        }
-    }
-
-    private static final class CursorKey {
-        private final double score;
-        private final long createdEpoch;
-        private final long skillId;
-
-        private CursorKey(double score, long createdEpoch, long skillId) {
-            this.score = score;
-            this.createdEpoch = createdEpoch;
-            this.skillId = skillId;
-        }
-
-        private static CursorKey parse(String raw) {
-            if (raw == null || raw.isBlank()) return null;
-            String[] parts = raw.split("\\|");
-            if (parts.length != 3) return null;
-            try {
-                double score = Double.parseDouble(parts[0]);
-                long createdEpoch = Long.parseLong(parts[1]);
-                long skillId = Long.parseLong(parts[2]);
-                return new CursorKey(score, createdEpoch, skillId);
-            } catch (Exception ignore) {
-                return null;
-            }
+            return !topCategories.isEmpty() || !topKeywords.isEmpty() || !coViewedIds.isEmpty();
         }
     }
 }
-
-
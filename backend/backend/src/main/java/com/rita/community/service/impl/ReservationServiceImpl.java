@@ -12,9 +12,12 @@ import com.rita.community.mapper.ChatMessageMapper;
 import com.rita.community.mapper.ReservationMapper;
 import com.rita.community.mapper.SkillMapper;
 import com.rita.community.mapper.UserMapper;
+import com.rita.community.service.CacheService;
 import com.rita.community.service.ReservationService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -50,19 +53,22 @@ public class ReservationServiceImpl implements ReservationService {
     private final SkillMapper skillMapper;
     private final ChatMessageMapper chatMessageMapper;
     private final ChatConversationMapper chatConversationMapper;
+    private final CacheService cacheService;
 
     public ReservationServiceImpl(
             ReservationMapper reservationMapper,
             UserMapper userMapper,
             SkillMapper skillMapper,
             ChatMessageMapper chatMessageMapper,
-            ChatConversationMapper chatConversationMapper
+            ChatConversationMapper chatConversationMapper,
+            CacheService cacheService
     ) {
         this.reservationMapper = reservationMapper;
         this.userMapper = userMapper;
         this.skillMapper = skillMapper;
         this.chatMessageMapper = chatMessageMapper;
         this.chatConversationMapper = chatConversationMapper;
+        this.cacheService = cacheService;
     }
 
     @Override
@@ -240,6 +246,23 @@ public class ReservationServiceImpl implements ReservationService {
         user.setCreditScore(next);
         user.setUpdatedAt(LocalDateTime.now());
         userMapper.updateById(user);
+        bumpSellerGenerationAfterCommit();
+    }
+
+    /**
+     * 信用分会出现在技能列表卡片上，提交后让列表 ETag 失效；提交前就 +1 的话，期间读到旧数据的请求会拿着新 ETag。
+     */
+    private void bumpSellerGenerationAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cacheService.bumpSellerGeneration();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cacheService.bumpSellerGeneration();
+            }
+        });
     }
 
     private int clamp(int value, int min, int max) {
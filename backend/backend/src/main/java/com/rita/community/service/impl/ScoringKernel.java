@@ -0,0 +1,366 @@
+package com.rita.community.service.impl;
+
+import com.rita.community.entity.Skill;
+import com.rita.community.service.impl.RecommendRanking.CursorKey;
+import com.rita.community.service.impl.RecommendRanking.ScoredSkill;
+import com.rita.community.service.impl.RecommendRanking.TopK;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ScoringKernel
+ * 作用：推荐打分内核。每个目录快照版本（以及每次去重访客统计）构建一次，把技能拆成基本类型数组（创建时间毫秒、热度、分类序号），
+ * 请求时只带入兴趣分类命中表、关键词命中位图和共现召回位图，逐条打分后用基本类型堆选前 k 个，只有最终入选的 k 个才创建 ScoredSkill。
+ * 目录条数达到 PARALLEL_THRESHOLD 且有多个核时按区间拆给 ForkJoin 公共池并行，各段的堆最后合并。
+ * 每段都要维护自己的前 k 名，段切得太碎时堆的进出会抵消并行收益，所以段数约为并行度的 4 倍，段长不小于 MIN_LEAF_SIZE（8192）与 32 倍 k 中的较大者。
+ * 权重、召回兜底与排序规则和原 scoreSkills + RecommendRanking.selectAfter 保持一致；
+ * 共现召回（看过的人还看了）作为第三路兴趣信号，只在分类和关键词都未命中时生效，信号值 0.7。
+ * 热度优先用窗口内去重访客数（同一人反复刷新只算一次）；还没有统计结果时退回原始浏览量。
+ */
+final class ScoringKernel {
+    static final int PARALLEL_THRESHOLD = 20_000;
+    static final int MIN_RECALL_SIZE = 20;
+    private static final int MIN_LEAF_SIZE = 8_192;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final long version;
+    private final Map<Long, Long> uniqueViewers; // null 表示热度按浏览量
+    private final Skill[] skills;
+    private final long[] ids;
+    private final long[] epochs;
+    private final double[] hotScores;
+    private final double[] freshScores;
+    private final int[] categoryIds; // -1 表示无分类
+    private final Map<String, Integer> categoryDict;
+    private final Map<Long, Integer> ordinalById;
+
+    private ScoringKernel(long version, List<Skill> source, Map<Long, Long> uniqueViewers) {
+        int n = source.size();
+        this.version = version;
+        this.uniqueViewers = uniqueViewers;
+        this.skills = source.toArray(new Skill[0]);
+        this.ids = new long[n];
+        this.epochs = new long[n];
+        this.hotScores = new double[n];
+        this.freshScores = new double[n];
+        this.categoryIds = new int[n];
+        this.categoryDict = new HashMap<>();
+        this.ordinalById = new HashMap<>(n * 2);
+
+        long[] hotSignals = new long[n];
+        long newest = Long.MIN_VALUE;
+        long oldest = Long.MAX_VALUE;
+        long maxHotSignal = 0;
+        for (int i = 0; i < n; i++) {
+            Skill skill = skills[i];
+            ids[i] = skill.getId() == null ? 0L : skill.getId();
+            epochs[i] = toEpoch(skill.getCreatedAt());
+            hotSignals[i] = hotSignal(skill, uniqueViewers);
+            String category = skill.getCategory() == null ? "" : skill.getCategory().trim();
+            categoryIds[i] = category.isEmpty() ? -1 : categoryDict.computeIfAbsent(category, (k) -> categoryDict.size());
+            if (skill.getId() != null) {
+                ordinalById.put(skill.getId(), i);
+            }
+            newest = Math.max(newest, epochs[i]);
+            oldest = Math.min(oldest, epochs[i]);
+            maxHotSignal = Math.max(maxHotSignal, hotSignals[i]);
+        }
+        if (newest == Long.MIN_VALUE) newest = 0;
+        if (oldest == Long.MAX_VALUE) oldest = 0;
+
+        // hot / fresh 只依赖目录本身，按版本算一次
+        for (int i = 0; i < n; i++) {
+            hotScores[i] = maxHotSignal > 0 ? (double) hotSignals[i] / (double) maxHotSignal : 0.0;
+            if (newest <= oldest) {
+                freshScores[i] = 1.0;
+            } else {
+                double fresh = (double) (epochs[i] - oldest) / (double) (newest - oldest);
+                freshScores[i] = Math.max(0.0, Math.min(1.0, fresh));
+            }
+        }
+    }
+
+    static ScoringKernel build(long version, List<Skill> skills) {
+        return new ScoringKernel(version, skills, null);
+    }
+
+    /**
+     * @param uniqueViewers 技能 id -> 窗口内去重访客数，作为热度；为 null 时热度按浏览量
+     */
+    static ScoringKernel build(long version, List<Skill> skills, Map<Long, Long> uniqueViewers) {
+        return new ScoringKernel(version, skills, uniqueViewers);
+    }
+
+    long version() {
+        return version;
+    }
+
+    /**
+     * 是否由这个目录版本和这份去重访客统计（按引用比较）构建。
+     */
+    boolean builtFrom(long catalogVersion, Map<Long, Long> viewers) {
+        return version == catalogVersion && uniqueViewers == viewers;
+    }
+
+    private static long hotSignal(Skill skill, Map<Long, Long> uniqueViewers) {
+        if (uniqueViewers == null) {
+            return skill.getViewCount() == null ? 0 : Math.max(0, skill.getViewCount());
+        }
+        Long viewers = skill.getId() == null ? null : uniqueViewers.get(skill.getId());
+        return viewers == null ? 0 : Math.max(0L, viewers);
+    }
+
+    int size() {
+        return skills.length;
+    }
+
+    /**
+     * 把画像兴趣转换成内核的查询参数：分类按序号做命中表，关键词命中的技能 id 转成位图。
+     */
+    Query query(boolean hasInterest, Collection<String> categories, Collection<Long> keywordMatchedIds) {
+        return query(hasInterest, categories, keywordMatchedIds, Collections.emptySet());
+    }
+
+    Query query(boolean hasInterest, Collection<String> categories, Collection<Long> keywordMatchedIds,
+                Collection<Long> coViewedIds) {
+        boolean[] categoryMask = new boolean[categoryDict.size()];
+        for (String category : categories) {
+            Integer categoryId = categoryDict.get(category);
+            if (categoryId != null) {
+                categoryMask[categoryId] = true;
+            }
+        }
+        Query query = new Query(hasInterest, categoryMask, toBits(keywordMatchedIds), toBits(coViewedIds));
+        // 有兴趣时只保留命中的技能；命中太少则全部参与排序，未命中的兴趣分为 0
+        query.filter = hasInterest && countMatched(query) >= MIN_RECALL_SIZE;
+        return query;
+    }
+
+    private BitSet toBits(Collection<Long> skillIds) {
+        BitSet bits = new BitSet(skills.length);
+        for (Long id : skillIds) {
+            Integer ordinal = ordinalById.get(id);
+            if (ordinal != null) {
+                bits.set(ordinal);
+            }
+        }
+        return bits;
+    }
+
+    TopK select(Query query, CursorKey cursor, int k) {
+        boolean parallel = skills.length >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+        return select(query, cursor, k, parallel);
+    }
+
+    /**
+     * 选出游标之后排名最靠前的 k 个，结果已按 RecommendRanking.ORDER 排好序。
+     */
+    TopK select(Query query, CursorKey cursor, int k, boolean parallel) {
+        boolean filter = query.filter;
+        int limit = Math.max(0, k);
+        Partial partial;
+        if (parallel) {
+            int leafSize = Math.max(Math.max(MIN_LEAF_SIZE, limit * 32),
+                    skills.length / (ForkJoinPool.getCommonPoolParallelism() * 4) + 1);
+            partial = ForkJoinPool.commonPool().invoke(new ScoreTask(query, cursor, filter, limit, leafSize, 0, skills.length));
+        } else {
+            partial = scoreRange(query, cursor, filter, limit, 0, skills.length);
+        }
+
+        List<ScoredSkill> items = new ArrayList<>(partial.size);
+        for (int i = 0; i < partial.size; i++) {
+            int ordinal = partial.ordinals[i];
+            items.add(new ScoredSkill(skills[ordinal], ids[ordinal], partial.scores[i], epochs[ordinal]));
+        }
+        items.sort(RecommendRanking.ORDER);
+        return new TopK(items, partial.afterCursor > items.size(), partial.candidates);
+    }
+
+    private int countMatched(Query query) {
+        int matched = 0;
+        for (int i = 0; i < skills.length && matched < MIN_RECALL_SIZE; i++) {
+            if (categoryMatched(query, i) || query.keywordBits.get(i) || query.coViewBits.get(i)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    private Partial scoreRange(Query query, CursorKey cursor, boolean filter, int k, int from, int to) {
+        Partial partial = new Partial(k);
+        for (int i = from; i < to; i++) {
+            boolean categoryMatched = categoryMatched(query, i);
+            boolean keywordMatched = query.keywordBits.get(i);
+            boolean coViewed = query.coViewBits.get(i);
+            if (filter && !(categoryMatched || keywordMatched || coViewed)) continue;
+            partial.candidates++;
+
+            double score;
+            if (!query.hasInterest) {
+                score = 0.6 * hotScores[i] + 0.4 * freshScores[i];
+            } else {
+                double categorySignal = categoryMatched ? 1.0 : (keywordMatched ? 0.8 : (coViewed ? 0.7 : 0.0));
+                score = 0.5 * categorySignal + 0.3 * hotScores[i] + 0.2 * freshScores[i];
+            }
+            if (cursor != null && !RecommendRanking.isAfterCursor(score, epochs[i], ids[i], cursor)) continue;
+            partial.afterCursor++;
+            partial.offer(i, score);
+        }
+        return partial;
+    }
+
+    private boolean categoryMatched(Query query, int ordinal) {
+        int categoryId = categoryIds[ordinal];
+        return categoryId >= 0 && query.categoryMask[categoryId];
+    }
+
+    private static long toEpoch(LocalDateTime time) {
+        if (time == null) return 0L;
+        return time.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    static final class Query {
+        private final boolean hasInterest;
+        private final boolean[] categoryMask;
+        private final BitSet keywordBits;
+        private final BitSet coViewBits;
+        private boolean filter;
+
+        private Query(boolean hasInterest, boolean[] categoryMask, BitSet keywordBits, BitSet coViewBits) {
+            this.hasInterest = hasInterest;
+            this.categoryMask = categoryMask;
+            this.keywordBits = keywordBits;
+            this.coViewBits = coViewBits;
+        }
+
+        /**
+         * 有兴趣画像但命中不足 MIN_RECALL_SIZE，退化为全目录参与排序。
+         */
+        boolean isBackfill() {
+            return hasInterest && !filter;
+        }
+    }
+
+    private final class ScoreTask extends RecursiveTask<Partial> {
+        private final Query query;
+        private final CursorKey cursor;
+        private final boolean filter;
+        private final int k;
+        private final int leafSize;
+        private final int from;
+        private final int to;
+
+        private ScoreTask(Query query, CursorKey cursor, boolean filter, int k, int leafSize, int from, int to) {
+            this.query = query;
+            this.cursor = cursor;
+            this.filter = filter;
+            this.k = k;
+            this.leafSize = leafSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= leafSize) {
+                return scoreRange(query, cursor, filter, k, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            ScoreTask left = new ScoreTask(query, cursor, filter, k, leafSize, from, mid);
+            left.fork();
+            Partial right = new ScoreTask(query, cursor, filter, k, leafSize, mid, to).compute();
+            Partial merged = left.join();
+            merged.mergeFrom(right);
+            return merged;
+        }
+    }
+
+    /**
+     * 一段区间的前 k 名：按 ORDER 的小顶堆（堆顶是当前第 k 名），只存序号和分数。
+     */
+    private final class Partial {
+        private final int k;
+        private final int[] ordinals;
+        private final double[] scores;
+        private int size;
+        private int candidates;
+        private int afterCursor;
+
+        private Partial(int k) {
+            this.k = k;
+            this.ordinals = new int[k];
+            this.scores = new double[k];
+        }
+
+        private void offer(int ordinal, double score) {
+            if (k == 0) return;
+            if (size < k) {
+                ordinals[size] = ordinal;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (ranksBefore(ordinal, score, ordinals[0], scores[0])) {
+                ordinals[0] = ordinal;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        private void mergeFrom(Partial other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.ordinals[i], other.scores[i]);
+            }
+            candidates += other.candidates;
+            afterCursor += other.afterCursor;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!ranksBefore(ordinals[parent], scores[parent], ordinals[index], scores[index])) break;
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int worst = index;
+                int left = index * 2 + 1;
+                int right = left + 1;
+                if (left < size && ranksBefore(ordinals[worst], scores[worst], ordinals[left], scores[left])) {
+                    worst = left;
+                }
+                if (right < size && ranksBefore(ordinals[worst], scores[worst], ordinals[right], scores[right])) {
+                    worst = right;
+                }
+                if (worst == index) return;
+                swap(index, worst);
+                index = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int ordinal = ordinals[a];
+            ordinals[a] = ordinals[b];
+            ordinals[b] = ordinal;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+
+        private boolean ranksBefore(int ordinalA, double scoreA, int ordinalB, double scoreB) {
+            return RecommendRanking.compare(scoreA, epochs[ordinalA], ids[ordinalA],
+                    scoreB, epochs[ordinalB], ids[ordinalB]) < 0;
+        }
+    }
+}
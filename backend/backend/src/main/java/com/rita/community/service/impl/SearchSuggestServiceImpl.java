@@ -0,0 +1,90 @@
+package com.rita.community.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.rita.community.entity.UserEvent;
+import com.rita.community.mapper.UserEventMapper;
+import com.rita.community.service.SearchSuggestService;
+import com.rita.community.service.SearchSuggestionTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SearchSuggestServiceImpl
+ * 作用：搜索联想实现。定时按窗口内搜过该词的人数汇总热门关键词，构建新的前缀树后整体替换，读请求无锁。
+ * 只收录至少 suggest-min-users 个用户搜过的词，避免个人的搜索内容出现在别人的联想里。
+ */
+@Service
+public class SearchSuggestServiceImpl implements SearchSuggestService {
+    private static final Logger log = LoggerFactory.getLogger(SearchSuggestServiceImpl.class);
+    private static final int MAX_QUERY_LENGTH = 64;
+
+    private final UserEventMapper userEventMapper;
+
+    @Value("${app.search.suggest-top-n:10}")
+    private int topN;
+
+    @Value("${app.search.suggest-max-queries:50000}")
+    private int maxQueries;
+
+    @Value("${app.search.suggest-min-users:2}")
+    private int minUsers;
+
+    @Value("${app.search.suggest-window-days:30}")
+    private int windowDays;
+
+    private volatile SearchSuggestionTrie trie = SearchSuggestionTrie.empty();
+
+    public SearchSuggestServiceImpl(UserEventMapper userEventMapper) {
+        this.userEventMapper = userEventMapper;
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int limit) {
+        return trie.suggest(prefix, Math.min(limit, topN));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.search.suggest-rebuild-ms:300000}",
+            initialDelayString = "${app.search.suggest-rebuild-ms:300000}")
+    public void rebuild() {
+        try {
+            QueryWrapper<UserEvent> qw = new QueryWrapper<>();
+            qw.select("keyword", "COUNT(DISTINCT user_id) AS users")
+                    .eq("event_type", "search")
+                    .isNotNull("keyword")
+                    .ge("created_at", LocalDateTime.now().minusDays(windowDays))
+                    .le("CHAR_LENGTH(keyword)", MAX_QUERY_LENGTH)
+                    .groupBy("keyword")
+                    .having("COUNT(DISTINCT user_id) >= {0}", minUsers)
+                    .orderByDesc("users")
+                    .last("LIMIT " + maxQueries);
+            Map<String, Long> counts = new HashMap<>();
+            for (Map<String, Object> row : userEventMapper.selectMaps(qw)) {
+                Object keyword = row.get("keyword");
+                Object users = row.get("users");
+                if (keyword == null || !(users instanceof Number n)) continue;
+                counts.merge(keyword.toString(), n.longValue(), Long::sum);
+            }
+            SearchSuggestionTrie built = SearchSuggestionTrie.build(counts, topN);
+            trie = built;
+            log.info("Search suggestion trie rebuilt, queries={}", built.size());
+        } catch (Exception e) {
+            log.warn("Rebuild search suggestion trie failed", e);
+        }
+    }
+}
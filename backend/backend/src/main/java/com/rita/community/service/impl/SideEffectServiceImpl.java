@@ -0,0 +1,109 @@
+package com.rita.community.service.impl;
+
+import com.rita.community.service.SideEffectService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SideEffectServiceImpl
+ * 作用：SideEffectService 的线程池实现。队列有界，不会因为 Redis/MySQL 变慢而无限堆积内存；
+ * 作为 SmartLifecycle 在 Web 容器停止接收请求之后、Redis 连接关闭之前停止，停止时等队列排空。
+ * 监控：async.side_effect{type,result} 计数（queued/dropped/failed）与 async.side_effect.queue 队列长度。
+ */
+@Service
+public class SideEffectServiceImpl implements SideEffectService, SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(SideEffectServiceImpl.class);
+
+    // Web 容器优雅停机在 DEFAULT_PHASE - 1024、停止在 DEFAULT_PHASE - 2048，Lettuce 连接工厂在 0；停止顺序按 phase 从大到小
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final long drainTimeoutSeconds;
+    private volatile boolean running;
+
+    public SideEffectServiceImpl(MeterRegistry meterRegistry,
+                                 @Value("${app.async.side-effect-threads:2}") int threads,
+                                 @Value("${app.async.side-effect-queue-capacity:10000}") int queueCapacity,
+                                 @Value("${app.async.side-effect-drain-timeout-seconds:30}") long drainTimeoutSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.drainTimeoutSeconds = drainTimeoutSeconds;
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                (r) -> new Thread(r, "side-effect-" + seq.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("async.side_effect.queue", executor, (e) -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    @Override
+    public boolean offer(String type, Runnable task) {
+        if (running) {
+            try {
+                executor.execute(() -> runTask(type, task));
+                count(type, "queued");
+                return true;
+            } catch (RejectedExecutionException ignore) {
+                // 队列已满或正在停机，直接丢弃
+            }
+        }
+        count(type, "dropped");
+        return false;
+    }
+
+    private void runTask(String type, Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            count(type, "failed");
+            log.warn("Side effect {} failed", type, e);
+        }
+    }
+
+    private void count(String type, String result) {
+        meterRegistry.counter("async.side_effect", "type", type, "result", result).increment();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * 停止接收新任务（之后提交的直接丢弃），等已入队的任务执行完。
+     */
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(drainTimeoutSeconds, TimeUnit.SECONDS)) {
+                log.warn("Side effect queue not drained in {}s, {} task(s) abandoned",
+                        drainTimeoutSeconds, executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,266 @@
+package com.rita.community.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.rita.community.entity.Skill;
+import com.rita.community.mapper.SkillMapper;
+import com.rita.community.service.SkillCatalogService;
+import com.rita.community.service.SkillCatalogSnapshot;
+import com.rita.community.service.SkillGeoIndex;
+import com.rita.community.service.SkillKeywordIndex;
+import com.rita.community.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SkillCatalogServiceImpl
+ * 作用：技能目录快照实现。启动后首次使用时全量加载上架技能，之后按 updated_at 水位增量刷新。
+ * 本节点的技能写操作只登记 id，由短周期任务攒批回库、一次生成新快照（每生成一次都要复制整个目录，逐条写会放大成 O(写次数 × 目录大小)）；
+ * 硬删除只能靠本地通知或定期全量重载感知。
+ * 关键词倒排索引与地理网格索引随每次变更同步增删，全量重载时整体重建。
+ * 另维护一个全部技能 id（不分上下架）的布隆过滤器，供详情、行为上报在查库前剔除不存在的 id。
+ */
+@Service
+public class SkillCatalogServiceImpl implements SkillCatalogService {
+    private static final Logger log = LoggerFactory.getLogger(SkillCatalogServiceImpl.class);
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // 雪花 id 的纪元（MyBatis-Plus ASSIGN_ID），高 41 位是相对它的毫秒数
+    private static final long SNOWFLAKE_EPOCH_MS = 1288834974657L;
+    // 布隆过滤器的覆盖时刻往前留的余量，吸收应用与 DB 的时钟偏差和事务提交延迟
+    private static final long ID_FILTER_SKEW_MS = 60_000L;
+    private static final double ID_FILTER_FPP = 0.01;
+    private static final long ID_FILTER_MIN_CAPACITY = 10_000L;
+
+    private final SkillMapper skillMapper;
+    private final Object writeLock = new Object();
+    // 本节点写操作登记的待刷新 id，由 applyPending 攒批处理
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+
+    private volatile SkillCatalogSnapshot current;
+    private volatile SkillKeywordIndex keywordIndex;
+    private volatile SkillGeoIndex geoIndex;
+    private volatile BloomFilter idFilter;
+    // 在此时刻之前生成的 id 都已进过 idFilter；之后的 id 可能是其他节点刚创建、还没刷新到的
+    private volatile long idFilterCoveredBeforeMs;
+    private LocalDateTime watermark;
+
+    public SkillCatalogServiceImpl(SkillMapper skillMapper) {
+        this.skillMapper = skillMapper;
+    }
+
+    @Override
+    public SkillCatalogSnapshot snapshot() {
+        SkillCatalogSnapshot snapshot = current;
+        if (snapshot != null) return snapshot;
+        synchronized (writeLock) {
+            if (current == null) {
+                loadAll();
+            }
+            return current;
+        }
+    }
+
+    @Override
+    public SkillKeywordIndex keywordIndex() {
+        snapshot();
+        return keywordIndex;
+    }
+
+    @Override
+    public SkillGeoIndex geoIndex() {
+        snapshot();
+        return geoIndex;
+    }
+
+    @Override
+    public boolean mightExist(long skillId) {
+        if (skillId <= 0) return false;
+        snapshot();
+        if ((skillId >> 22) + SNOWFLAKE_EPOCH_MS >= idFilterCoveredBeforeMs) return true;
+        return idFilter.mightContain(skillId);
+    }
+
+    @Override
+    public void refreshSkill(Long skillId) {
+        if (skillId == null || current == null) return; // 尚未加载，首次加载时自然包含
+        pendingIds.add(skillId);
+    }
+
+    @Override
+    public void removeSkill(Long skillId) {
+        // 回库查不到即按删除处理，与 refreshSkill 走同一批
+        refreshSkill(skillId);
+    }
+
+    /**
+     * 攒批刷新：取走登记的 id，一次 selectBatchIds 回库，查不到的按删除处理，整批只生成一个新快照。
+     * 失败时把 id 放回，下一轮重试。
+     */
+    @Scheduled(fixedDelayString = "${app.recommend.catalog-apply-ms:1000}",
+            initialDelayString = "${app.recommend.catalog-apply-ms:1000}")
+    public void applyPending() {
+        if (pendingIds.isEmpty()) return;
+        List<Long> ids = new ArrayList<>(pendingIds);
+        pendingIds.removeAll(ids);
+        synchronized (writeLock) {
+            if (current == null) return;
+            try {
+                List<Skill> changed = skillMapper.selectBatchIds(ids);
+                Set<Long> found = new HashSet<>();
+                for (Skill skill : changed) {
+                    found.add(skill.getId());
+                }
+                List<Long> removedIds = new ArrayList<>();
+                for (Long id : ids) {
+                    if (!found.contains(id)) removedIds.add(id);
+                }
+                applyChanges(changed, removedIds);
+            } catch (Exception e) {
+                pendingIds.addAll(ids);
+                log.warn("Skill catalog pending refresh failed, {} id(s) requeued", ids.size(), e);
+            }
+        }
+    }
+
+    /**
+     * 增量刷新：拉取 updated_at >= 水位的行（含下架行，走 idx_skill_updated），同一秒内的更新用 >= 兜底。
+     * 水位那一秒的行每轮都会再查回来，和快照里已应用的内容一致的直接跳过；全部跳过时不生成新快照，
+     * 否则每轮都会复制整个目录、推高版本，让各节点的打分内核白白重建。
+     */
+    @Scheduled(fixedDelayString = "${app.recommend.catalog-refresh-ms:30000}",
+            initialDelayString = "${app.recommend.catalog-refresh-ms:30000}")
+    public void refreshIncremental() {
+        synchronized (writeLock) {
+            if (current == null || watermark == null) return;
+            try {
+                long startedMs = System.currentTimeMillis();
+                List<Skill> rows = skillMapper.selectList(new LambdaQueryWrapper<Skill>()
+                        .ge(Skill::getUpdatedAt, watermark));
+                List<Skill> changed = new ArrayList<>();
+                SkillCatalogSnapshot snapshot = current;
+                for (Skill skill : rows) {
+                    if (skill.getId() == null) continue;
+                    idFilter.put(skill.getId());
+                    if (!alreadyApplied(snapshot, skill)) changed.add(skill);
+                }
+                if (!changed.isEmpty()) {
+                    applyChanges(changed, Collections.emptyList());
+                }
+                advanceWatermark(rows);
+                // 新建的行 updated_at 必然不早于水位，本轮之前创建的 id 都已进过滤器
+                idFilterCoveredBeforeMs = startedMs - ID_FILTER_SKEW_MS;
+            } catch (Exception e) {
+                log.warn("Skill catalog incremental refresh failed, keep version {}", current.getVersion(), e);
+            }
+        }
+    }
+
+    /**
+     * 全量重载：兜底处理其他节点的硬删除以及漏掉的变更。
+     */
+    @Scheduled(fixedDelayString = "${app.recommend.catalog-full-reload-ms:600000}",
+            initialDelayString = "${app.recommend.catalog-full-reload-ms:600000}")
+    public void reloadAll() {
+        synchronized (writeLock) {
+            try {
+                loadAll();
+            } catch (Exception e) {
+                log.warn("Skill catalog full reload failed", e);
+            }
+        }
+    }
+
+    private void loadAll() {
+        long startedMs = System.currentTimeMillis();
+        List<Object> allIds = skillMapper.selectObjs(new QueryWrapper<Skill>().select("id"));
+        BloomFilter filter = BloomFilter.create(Math.max(allIds.size() * 2L, ID_FILTER_MIN_CAPACITY), ID_FILTER_FPP);
+        for (Object id : allIds) {
+            if (id instanceof Number n) filter.put(n.longValue());
+        }
+        List<Skill> skills = skillMapper.selectList(new LambdaQueryWrapper<Skill>()
+                .eq(Skill::getStatus, 1));
+        Map<Long, Skill> byId = new LinkedHashMap<>();
+        for (Skill skill : skills) {
+            if (skill.getId() != null) {
+                byId.put(skill.getId(), skill);
+            }
+        }
+        long version = current == null ? 1L : current.getVersion() + 1;
+        keywordIndex = SkillKeywordIndex.build(byId.values());
+        geoIndex = SkillGeoIndex.build(byId.values());
+        current = new SkillCatalogSnapshot(version, byId);
+        idFilter = filter;
+        idFilterCoveredBeforeMs = startedMs - ID_FILTER_SKEW_MS;
+        watermark = null;
+        advanceWatermark(skills);
+        if (watermark == null) {
+            // 目录为空时从纪元开始，避免应用与 DB 时钟偏差导致漏读
+            watermark = EPOCH;
+        }
+        log.info("Skill catalog loaded, size={}, version={}", byId.size(), version);
+    }
+
+    private void applyChanges(List<Skill> changed, List<Long> removedIds) {
+        for (Long id : removedIds) {
+            keywordIndex.remove(id);
+            geoIndex.remove(id);
+        }
+        for (Skill skill : changed) {
+            if (skill.getId() != null) idFilter.put(skill.getId());
+            if (Integer.valueOf(1).equals(skill.getStatus())) {
+                keywordIndex.upsert(skill);
+                geoIndex.upsert(skill);
+            } else {
+                keywordIndex.remove(skill.getId());
+                geoIndex.remove(skill.getId());
+            }
+        }
+        current = current.apply(changed, removedIds);
+    }
+
+    /**
+     * 该行是否已体现在快照里：下架行不在快照中即可；上架行要求快照里的条目内容一致。
+     * 浏览量回写不改 updated_at，也不算目录变更，不参与比较。
+     */
+    private boolean alreadyApplied(SkillCatalogSnapshot snapshot, Skill row) {
+        Skill applied = snapshot.get(row.getId());
+        if (!Integer.valueOf(1).equals(row.getStatus())) return applied == null;
+        return applied != null
+                && Objects.equals(applied.getUpdatedAt(), row.getUpdatedAt())
+                && Objects.equals(applied.getStatus(), row.getStatus())
+                && Objects.equals(applied.getUserId(), row.getUserId())
+                && Objects.equals(applied.getTitle(), row.getTitle())
+                && Objects.equals(applied.getDescription(), row.getDescription())
+                && Objects.equals(applied.getCategory(), row.getCategory())
+                && Objects.equals(applied.getPrice(), row.getPrice())
+                && Objects.equals(applied.getImageUrl(), row.getImageUrl())
+                && Objects.equals(applied.getLng(), row.getLng())
+                && Objects.equals(applied.getLat(), row.getLat())
+                && Objects.equals(applied.getAddress(), row.getAddress())
+                && Objects.equals(applied.getAdcode(), row.getAdcode())
+                && Objects.equals(applied.getCityName(), row.getCityName());
+    }
+
+    private void advanceWatermark(List<Skill> skills) {
+        for (Skill skill : skills) {
+            LocalDateTime updatedAt = skill.getUpdatedAt();
+            if (updatedAt != null && (watermark == null || updatedAt.isAfter(watermark))) {
+                watermark = updatedAt;
+            }
+        }
+    }
+}
@@ -1,18 +1,35 @@
 package com.rita.community.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.rita.community.dto.SkillDetailResp;
 import com.rita.community.entity.Skill;
 import com.rita.community.mapper.SkillMapper;
 import com.rita.community.service.CacheService;
+import com.rita.community.service.SkillCatalogService;
+import com.rita.community.service.SkillCatalogSnapshot;
+import com.rita.community.service.SkillGeoIndex;
+import com.rita.community.service.SkillSearchEngine;
 import com.rita.community.service.SkillService;
+import com.rita.community.service.SkillViewCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * SkillServiceImpl
@@ -20,13 +37,40 @@ import java.util.Objects;
  */
 @Service
 public class SkillServiceImpl implements SkillService {
+    private static final Logger log = LoggerFactory.getLogger(SkillServiceImpl.class);
 
     private final SkillMapper skillMapper;
     private final CacheService cacheService;
+    private final SkillCatalogService skillCatalogService;
+    private final SkillSearchEngine skillSearchEngine;
+    private final SkillViewCounter skillViewCounter;
 
-    public SkillServiceImpl(SkillMapper skillMapper, CacheService cacheService) {
+    private static final int MAX_TOTAL_KEY_LENGTH = 64;
+    // 单次浏览量回写最多处理的批数，余下的留给下一轮，避免积压时一轮跑太久
+    private static final int MAX_VIEW_FLUSH_ROUNDS = 20;
+
+    @Value("${app.cache.skill-facet-ttl-seconds:300}")
+    private int skillFacetTtl;
+
+    @Value("${app.cache.skill-list-total-ttl-seconds:60}")
+    private int skillListTotalTtl;
+
+    @Value("${app.cache.skill-page-ttl-seconds:120}")
+    private int skillPageTtl;
+
+    @Value("${app.cache.skill-page-max-cached-page:5}")
+    private int skillPageMaxCachedPage;
+
+    @Value("${app.cache.skill-view-flush-batch-size:500}")
+    private int viewFlushBatchSize;
+
+    public SkillServiceImpl(SkillMapper skillMapper, CacheService cacheService, SkillCatalogService skillCatalogService,
+                            SkillSearchEngine skillSearchEngine, SkillViewCounter skillViewCounter) {
         this.skillMapper = skillMapper;
         this.cacheService = cacheService;
+        this.skillCatalogService = skillCatalogService;
+        this.skillSearchEngine = skillSearchEngine;
+        this.skillViewCounter = skillViewCounter;
     }
 
     @Override
@@ -35,23 +79,213 @@ public class SkillServiceImpl implements SkillService {
             skill.setViewCount(0);
         }
         skillMapper.insert(skill);
+        skillCatalogService.refreshSkill(skill.getId());
+        cacheService.bumpSkillListGeneration(skill.getCategory());
+        if (isListed(skill.getStatus())) {
+            cacheService.incrSkillFacet(skill.getCategory(), 1);
+        }
         return skill.getId();
     }
 
+    /**
+     * 前几页的结果缓存只存 id 和总数，key 里带分类代号：分类下任何写操作都会让代号 +1，旧页随 TTL 过期。
+     * 命中后经详情缓存批量组装，未命中详情缓存的再按 id 回库。
+     */
     @Override
     public IPage<Skill> page(Page<Skill> page, String keyword, String category) {
-        LambdaQueryWrapper<Skill> qw = new LambdaQueryWrapper<>();
-        qw.eq(Skill::getStatus, 1);
+        String categoryFilter = category == null || category.isBlank() ? null : category;
+        String pageKey = pageCacheKey(page, keyword, categoryFilter);
+        if (pageKey != null) {
+            CachedPage cached = cacheService.getSkillListPage(pageKey, CachedPage.class);
+            if (cached != null) {
+                page.setRecords(hydrate(cached.ids));
+                page.setTotal(cached.total);
+                return page;
+            }
+        }
 
+        IPage<Skill> result = queryPage(page, keyword, categoryFilter);
+        if (pageKey != null) {
+            cacheService.putSkillListPage(pageKey, CachedPage.of(result), skillPageTtl);
+        }
+        return result;
+    }
+
+    /**
+     * 带关键词时交给检索引擎（按相关度排序），否则按分类 + 发布时间倒序分页。
+     * 总数只用于前端的 "约 N 条"：无关键词取分面缓存，带关键词取按筛选条件缓存的总数，命中时不再发 COUNT。
+     */
+    private IPage<Skill> queryPage(Page<Skill> page, String keyword, String categoryFilter) {
         if (keyword != null && !keyword.isBlank()) {
-            qw.and(w -> w.like(Skill::getTitle, keyword).or().like(Skill::getDescription, keyword));
+            String totalKey = listTotalKey(keyword, categoryFilter);
+            Long cachedTotal = cacheService.getSkillListTotal(totalKey);
+            if (cachedTotal != null) {
+                page.setSearchCount(false);
+            }
+            IPage<Skill> result = skillSearchEngine.search(page, keyword, categoryFilter);
+            if (cachedTotal != null) {
+                result.setTotal(cachedTotal);
+            } else {
+                cacheService.putSkillListTotal(totalKey, result.getTotal(), skillListTotalTtl);
+            }
+            return result;
+        }
+
+        Map<String, Long> counts = categoryCounts();
+        long total = 0L;
+        if (categoryFilter != null) {
+            total = counts.getOrDefault(categoryFilter, 0L);
+        } else {
+            for (Long n : counts.values()) total += n;
+        }
+
+        LambdaQueryWrapper<Skill> qw = new QueryWrapper<Skill>().select(SkillMapper.LIST_COLUMNS).lambda();
+        qw.eq(Skill::getStatus, 1);
+        if (categoryFilter != null) {
+            qw.eq(Skill::getCategory, categoryFilter);
         }
+
+        qw.orderByDesc(Skill::getCreatedAt);
+        page.setSearchCount(false);
+        IPage<Skill> result = skillMapper.selectPage(page, qw);
+        result.setTotal(total);
+        return result;
+    }
+
+    private String pageCacheKey(Page<Skill> page, String keyword, String categoryFilter) {
+        if (page.getCurrent() < 1 || page.getCurrent() > skillPageMaxCachedPage) return null;
+        String filterKey = keyword == null || keyword.isBlank()
+                ? (categoryFilter == null ? "" : categoryFilter) + "|"
+                : listTotalKey(keyword, categoryFilter);
+        if (filterKey == null) return null;
+        long gen = cacheService.getSkillListGeneration(categoryFilter);
+        return gen + ":" + filterKey + "|" + page.getCurrent() + "|" + page.getSize();
+    }
+
+    /**
+     * 按缓存的顺序组装：先批量读详情缓存，缺的按列表列一次 IN 查询补齐；期间被删除的技能直接跳过并负缓存。
+     */
+    private List<Skill> hydrate(long[] ids) {
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        Map<Long, SkillDetailResp> details = cacheService.getSkillDetails(idList, SkillDetailResp.class);
+        List<Long> missing = new ArrayList<>();
+        for (Long id : idList) {
+            if (!details.containsKey(id)) missing.add(id);
+        }
+        Map<Long, Skill> loaded = new HashMap<>();
+        if (!missing.isEmpty()) {
+            // 与未缓存的列表查询同样只取列表列（描述截断），缓存未命中不比直接查列表更贵
+            for (Skill skill : skillMapper.selectList(new QueryWrapper<Skill>().select(SkillMapper.LIST_COLUMNS)
+                    .lambda().in(Skill::getId, missing))) {
+                loaded.put(skill.getId(), skill);
+            }
+            List<Long> absent = new ArrayList<>();
+            for (Long id : missing) {
+                if (!loaded.containsKey(id)) absent.add(id);
+            }
+            cacheService.putMissingSkillDetails(absent);
+        }
+
+        List<Skill> skills = new ArrayList<>(ids.length);
+        for (Long id : idList) {
+            SkillDetailResp detail = details.get(id);
+            Skill skill = detail != null ? toSkill(detail) : loaded.get(id);
+            if (skill != null) skills.add(skill);
+        }
+        return skills;
+    }
+
+    private Skill toSkill(SkillDetailResp detail) {
+        Skill skill = new Skill();
+        skill.setId(detail.getId());
+        skill.setUserId(detail.getUserId());
+        skill.setTitle(detail.getTitle());
+        skill.setDescription(detail.getDescription());
+        skill.setCategory(detail.getCategory());
+        skill.setPrice(detail.getPrice());
+        skill.setStatus(detail.getStatus());
+        skill.setCreatedAt(detail.getCreatedAt());
+        skill.setUpdatedAt(detail.getUpdatedAt());
+        skill.setImageUrl(detail.getImageUrl());
+        skill.setLng(detail.getLng());
+        skill.setLat(detail.getLat());
+        skill.setAddress(detail.getAddress());
+        skill.setAdcode(detail.getAdcode());
+        skill.setCityName(detail.getCityName());
+        skill.setViewCount(detail.getViewCount());
+        return skill;
+    }
+
+    /**
+     * 分面缓存由写操作增量维护（上架 +1，下架/删除 -1，改分类时挪动），短 TTL 到期后整体重建，兜住并发写造成的偏差。
+     */
+    @Override
+    public Map<String, Long> categoryCounts() {
+        Map<String, Long> cached = cacheService.getSkillFacets();
+        if (cached != null) return cached;
+
+        QueryWrapper<Skill> qw = new QueryWrapper<>();
+        qw.select("category", "COUNT(*) AS cnt").eq("status", 1).groupBy("category");
+        Map<String, Long> counts = new HashMap<>();
+        for (Map<String, Object> row : skillMapper.selectMaps(qw)) {
+            Object cat = row.get("category");
+            Object cnt = row.get("cnt");
+            counts.merge(cat == null ? "" : cat.toString(), cnt instanceof Number n ? n.longValue() : 0L, Long::sum);
+        }
+        cacheService.putSkillFacets(counts, skillFacetTtl);
+        return counts;
+    }
+
+    /**
+     * 条件 created_at < t OR (created_at = t AND id < id0) 配合 (created_at, id) 倒序，
+     * 走 idx_skill_created（按分类时走 idx_skill_category_created）顺序读到 limit 条即停，深页与首页代价相同。
+     */
+    @Override
+    public List<Skill> scroll(LocalDateTime createdBefore, Long idBefore, int limit, String category) {
+        LambdaQueryWrapper<Skill> qw = new QueryWrapper<Skill>().select(SkillMapper.LIST_COLUMNS).lambda();
+        qw.eq(Skill::getStatus, 1);
         if (category != null && !category.isBlank()) {
             qw.eq(Skill::getCategory, category);
         }
+        if (createdBefore != null && idBefore != null) {
+            qw.and(w -> w.lt(Skill::getCreatedAt, createdBefore)
+                    .or(x -> x.eq(Skill::getCreatedAt, createdBefore).lt(Skill::getId, idBefore)));
+        }
+        qw.orderByDesc(Skill::getCreatedAt).orderByDesc(Skill::getId);
+        // searchCount = false：不发 COUNT
+        return skillMapper.selectPage(new Page<>(1, limit, false), qw).getRecords();
+    }
 
-        qw.orderByDesc(Skill::getCreatedAt);
-        return skillMapper.selectPage(page, qw);
+    /**
+     * 走目录的地理网格索引：只看覆盖查询圆的格子，关键词和分类在候选上过滤，不查库。
+     */
+    @Override
+    public IPage<Skill> nearby(Page<Skill> page, double lng, double lat, double radiusKm, String keyword, String category) {
+        SkillCatalogSnapshot catalog = skillCatalogService.snapshot();
+        List<SkillGeoIndex.Hit> hits = skillCatalogService.geoIndex().within(lat, lng, radiusKm);
+        Set<Long> keywordIds = keyword == null || keyword.isBlank()
+                ? null
+                : skillCatalogService.keywordIndex().match(List.of(keyword));
+        String categoryFilter = category == null || category.isBlank() ? null : category.trim();
+
+        List<Skill> matched = new ArrayList<>();
+        for (SkillGeoIndex.Hit hit : hits) {
+            Skill skill = catalog.get(hit.getSkillId());
+            if (skill == null) continue;
+            if (keywordIds != null && !keywordIds.contains(skill.getId())) continue;
+            if (categoryFilter != null && !categoryFilter.equals(skill.getCategory())) continue;
+            matched.add(skill);
+        }
+
+        long from = Math.max(0L, (page.getCurrent() - 1) * page.getSize());
+        int fromIndex = (int) Math.min(from, matched.size());
+        int toIndex = (int) Math.min(from + page.getSize(), matched.size());
+        page.setTotal(matched.size());
+        page.setRecords(new ArrayList<>(matched.subList(fromIndex, toIndex)));
+        return page;
     }
 
     @Override
@@ -72,9 +306,20 @@ public class SkillServiceImpl implements SkillService {
             return true;
         }
 
+        boolean wasListed = isListed(found.getStatus());
         found.setStatus(status);
+        // 置空让 updateById 跳过该列，由 MySQL ON UPDATE CURRENT_TIMESTAMP 按库时钟刷新；
+        // 写回查出来的旧值会压掉自动更新，其他节点的目录按 updated_at 水位增量刷新时就看不到这次变更
+        found.setUpdatedAt(null);
         boolean ok = skillMapper.updateById(found) > 0;
-        if (ok) cacheService.evictSkillDetail(id);
+        if (ok) {
+            cacheService.evictSkillDetail(id);
+            skillCatalogService.refreshSkill(id);
+            cacheService.bumpSkillListGeneration(found.getCategory());
+            if (wasListed != isListed(status)) {
+                cacheService.incrSkillFacet(found.getCategory(), wasListed ? -1 : 1);
+            }
+        }
         return ok;
     }
 
@@ -82,8 +327,18 @@ public class SkillServiceImpl implements SkillService {
     public boolean removeByOwner(Long id, Long userId) {
         LambdaQueryWrapper<Skill> qw = new LambdaQueryWrapper<>();
         qw.eq(Skill::getId, id).eq(Skill::getUserId, userId);
+        Skill found = skillMapper.selectOne(qw);
+        if (found == null) return false;
+
         boolean ok = skillMapper.delete(qw) > 0;
-        if (ok) cacheService.evictSkillDetail(id);
+        if (ok) {
+            cacheService.evictSkillDetail(id);
+            skillCatalogService.removeSkill(id);
+            cacheService.bumpSkillListGeneration(found.getCategory());
+            if (isListed(found.getStatus())) {
+                cacheService.incrSkillFacet(found.getCategory(), -1);
+            }
+        }
         return ok;
     }
 
@@ -107,6 +362,7 @@ public class SkillServiceImpl implements SkillService {
             return true;
         }
 
+        String oldCategory = found.getCategory();
         found.setTitle(update.getTitle());
         found.setDescription(update.getDescription());
         found.setCategory(update.getCategory());
@@ -117,8 +373,20 @@ public class SkillServiceImpl implements SkillService {
         found.setAddress(update.getAddress());
         found.setAdcode(update.getAdcode());
         found.setCityName(update.getCityName());
+        found.setUpdatedAt(null);
         boolean ok = skillMapper.updateById(found) > 0;
-        if (ok) cacheService.evictSkillDetail(id);
+        if (ok) {
+            cacheService.evictSkillDetail(id);
+            skillCatalogService.refreshSkill(id);
+            cacheService.bumpSkillListGeneration(found.getCategory());
+            if (!sameText(oldCategory, found.getCategory())) {
+                cacheService.bumpSkillListGeneration(oldCategory);
+            }
+            if (isListed(found.getStatus()) && !sameText(oldCategory, found.getCategory())) {
+                cacheService.incrSkillFacet(oldCategory, -1);
+                cacheService.incrSkillFacet(found.getCategory(), 1);
+            }
+        }
         return ok;
     }
 
@@ -127,18 +395,85 @@ public class SkillServiceImpl implements SkillService {
         return skillMapper.selectById(id);
     }
 
+    @Override
+    public boolean mightExist(Long id) {
+        return id != null && skillCatalogService.mightExist(id);
+    }
+
+    @Override
+    public List<Skill> listByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return new ArrayList<>();
+        return skillMapper.selectBatchIds(ids);
+    }
+
     /**
-     * 浏览量采用 "Redis 自增 + 每 10 次回写 MySQL" 的懒回写策略，减轻数据库压力。
+     * 浏览量先在本节点内存聚合，定时累加到 Redis 增量 key 并把技能 id 放进脏集合；
+     * flushViewCounts 再从脏集合批量领取、一条 UPDATE 回写 MySQL，请求线程不碰 Redis 和数据库。
      */
     @Override
     public void increaseViewCount(Long id) {
         if (id == null) return;
-        long current = cacheService.incrSkillView(id);
-        if (current % 10 == 0) {
-            UpdateWrapper<Skill> uw = new UpdateWrapper<>();
-            uw.eq("id", id).setSql("view_count = IFNULL(view_count, 0) + 10");
-            skillMapper.update(null, uw);
-            cacheService.evictSkillDetail(id);
+        // 本节点内存计数，定时刷到 Redis 增量并标脏，再由 flushViewCounts 批量回写
+        skillViewCounter.increment(id);
+    }
+
+    /**
+     * 浏览量批量回写：分批领取脏技能 id，取走增量后一条 UPDATE ... CASE 写入，再原地修正详情缓存里的浏览量。
+     * 领取用 SPOP、取增量用 GETDEL，多实例同时运行也不会重复回写；写库失败时把增量加回 Redis，下一轮重试。
+     */
+    @Scheduled(fixedDelayString = "${app.cache.skill-view-flush-ms:10000}",
+            initialDelayString = "${app.cache.skill-view-flush-ms:10000}")
+    public void flushViewCounts() {
+        for (int round = 0; round < MAX_VIEW_FLUSH_ROUNDS; round++) {
+            List<Long> ids = cacheService.claimDirtySkillViews(viewFlushBatchSize);
+            if (ids.isEmpty()) return;
+            Map<Long, Long> deltas = cacheService.takeSkillViews(ids);
+            if (deltas.isEmpty()) continue;
+            try {
+                cacheService.applySkillDetailViews(deltas, SkillDetailResp.class,
+                        (detail, delta) -> detail.setViewCount((detail.getViewCount() == null ? 0 : detail.getViewCount()) + delta.intValue()),
+                        () -> skillMapper.addViewCounts(deltas));
+            } catch (Exception e) {
+                // 把增量加回去并重新标脏，计数不丢
+                cacheService.incrSkillViews(deltas);
+                log.warn("Flush view counts failed, {} skill(s) put back", deltas.size(), e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * status 为空时按库表默认值（1 上架）处理。
+     */
+    private boolean isListed(Integer status) {
+        return status == null || status == 1;
+    }
+
+    /**
+     * 关键词 trim + 小写后与分类拼成缓存 key；过长的关键词不缓存，避免 key 膨胀。
+     */
+    private String listTotalKey(String keyword, String category) {
+        String kw = keyword.trim().toLowerCase(Locale.ROOT);
+        if (kw.length() > MAX_TOTAL_KEY_LENGTH) return null;
+        return (category == null ? "" : category) + "|" + kw;
+    }
+
+    /**
+     * 列表结果缓存的值：一页的 id（按原顺序）与总数；存 Redis，不能声明为 final。
+     */
+    static class CachedPage {
+        private long[] ids = new long[0];
+        private long total;
+
+        static CachedPage of(IPage<Skill> page) {
+            CachedPage cached = new CachedPage();
+            List<Skill> records = page.getRecords();
+            cached.ids = new long[records.size()];
+            for (int i = 0; i < records.size(); i++) {
+                cached.ids[i] = records.get(i).getId();
+            }
+            cached.total = page.getTotal();
+            return cached;
         }
     }
 
@@ -0,0 +1,76 @@
+package com.rita.community.service.impl;
+
+import com.rita.community.service.CacheService;
+import com.rita.community.service.SkillViewCounter;
+import com.rita.community.util.LocalCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * SkillViewCounterImpl
+ * 作用：SkillViewCounter 实现，按技能 id 的 LongAdder 分段计数，定时批量刷到 Redis（INCRBY + 标脏，交给 DB 批量回写）。
+ * 刷出失败时把增量加回本地，下一轮重试；停机时在 Web 容器停止之后、Redis 连接关闭之前最后刷一次。
+ */
+@Service
+public class SkillViewCounterImpl implements SkillViewCounter, SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(SkillViewCounterImpl.class);
+
+    // 在 Web 容器停止（不再有新的浏览）之后、Lettuce 连接工厂（phase 0）之前停止并最后刷一次
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 8192;
+
+    private final CacheService cacheService;
+    private final LocalCounter<Long> counter = new LocalCounter<>();
+    private volatile boolean running;
+
+    public SkillViewCounterImpl(CacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    @Override
+    public void increment(Long skillId) {
+        counter.increment(skillId);
+    }
+
+    @Override
+    public long localPending(Long skillId) {
+        return counter.get(skillId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.skill-view-local-flush-ms:200}")
+    public void flush() {
+        Map<Long, Long> deltas = counter.drain();
+        if (deltas.isEmpty()) return;
+        try {
+            cacheService.incrSkillViews(deltas);
+        } catch (Exception e) {
+            deltas.forEach(counter::add);
+            log.warn("Flush local view counts failed, {} skill(s) kept for retry", deltas.size(), e);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,139 @@
+package com.rita.community.service.impl;
+
+import com.rita.community.service.CacheService;
+import com.rita.community.service.UniqueViewerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * UniqueViewerServiceImpl
+ * 作用：UniqueViewerService 实现。浏览先按技能在本节点去重，定时一次 pipeline 写进当天的 HLL；
+ * 另一个定时任务对窗口内有访客的技能逐个多 key PFCOUNT，结果整体替换，读请求只查内存。
+ */
+@Service
+public class UniqueViewerServiceImpl implements UniqueViewerService, SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(UniqueViewerServiceImpl.class);
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final int COUNT_BATCH_SIZE = 1000;
+    // 与 SkillViewCounterImpl 相同：Web 容器停止之后、Redis 连接关闭之前最后刷一次
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 8192;
+
+    private final CacheService cacheService;
+    private final ConcurrentHashMap<Long, Set<String>> pending = new ConcurrentHashMap<>();
+    private volatile Map<Long, Long> windowCounts = Collections.emptyMap();
+    private volatile boolean running;
+
+    @Value("${app.recommend.unique-viewer-window-days:7}")
+    private int windowDays;
+
+    public UniqueViewerServiceImpl(CacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    @Override
+    public void recordView(Long skillId, String viewerKey) {
+        if (skillId == null || viewerKey == null || viewerKey.isEmpty()) return;
+        Set<String> viewers = pending.computeIfAbsent(skillId, (k) -> ConcurrentHashMap.newKeySet());
+        viewers.add(viewerKey);
+        if (pending.get(skillId) != viewers) {
+            // 这批刚被 flush 摘走，可能没带上本次访客；再记一遍，PFADD 幂等，重复无害
+            pending.computeIfAbsent(skillId, (k) -> ConcurrentHashMap.newKeySet()).add(viewerKey);
+        }
+    }
+
+    @Override
+    public long uniqueViewers(Long skillId) {
+        if (skillId == null) return 0L;
+        Long count = windowCounts.get(skillId);
+        return count == null ? 0L : count;
+    }
+
+    @Override
+    public Map<Long, Long> windowCounts() {
+        return windowCounts;
+    }
+
+    @Scheduled(fixedDelayString = "${app.recommend.unique-viewer-flush-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+        Map<Long, Set<String>> batch = new HashMap<>();
+        for (Long skillId : pending.keySet()) {
+            Set<String> viewers = pending.remove(skillId);
+            if (viewers != null && !viewers.isEmpty()) batch.put(skillId, viewers);
+        }
+        if (batch.isEmpty()) return;
+        try {
+            // 多留一天，窗口最早那天的桶在统计时仍然存在
+            cacheService.addSkillViewers(LocalDate.now().format(DAY), batch, (windowDays + 1) * 86400);
+        } catch (Exception e) {
+            // 估计值，失败只记日志不重试，避免 Redis 故障时本地堆积
+            log.warn("Flush unique viewers failed, {} skill(s) dropped", batch.size(), e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refreshWindow();
+    }
+
+    /**
+     * 统计窗口内各技能的去重访客数，整体替换内存结果；失败时保留上一次的结果。
+     */
+    @Scheduled(fixedDelayString = "${app.recommend.unique-viewer-refresh-ms:300000}",
+            initialDelayString = "${app.recommend.unique-viewer-refresh-ms:300000}")
+    public void refreshWindow() {
+        try {
+            List<String> days = new ArrayList<>(windowDays);
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i < windowDays; i++) {
+                days.add(today.minusDays(i).format(DAY));
+            }
+            List<Long> ids = new ArrayList<>(cacheService.getViewedSkills(days));
+            Map<Long, Long> counts = new HashMap<>(ids.size() * 2);
+            for (int from = 0; from < ids.size(); from += COUNT_BATCH_SIZE) {
+                counts.putAll(cacheService.countSkillViewers(ids.subList(from, Math.min(ids.size(), from + COUNT_BATCH_SIZE)), days));
+            }
+            windowCounts = Collections.unmodifiableMap(counts);
+            log.info("Unique viewers refreshed, skills={}, windowDays={}", counts.size(), windowDays);
+        } catch (Exception e) {
+            log.warn("Unique viewers refresh failed, keep previous result", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
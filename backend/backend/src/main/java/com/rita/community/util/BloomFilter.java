@@ -0,0 +1,77 @@
+package com.rita.community.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * BloomFilter
+ * 作用：long 型 id 的布隆过滤器。mightContain 为 false 时一定不存在，为 true 时可能存在（误判率约为构建时给定的 fpp）。
+ * 位数组用 AtomicLongArray，put 与 mightContain 可以并发调用。
+ */
+public final class BloomFilter {
+    private final AtomicLongArray words;
+    private final long numBits;
+    private final int numHashes;
+
+    private BloomFilter(long numBits, int numHashes) {
+        this.words = new AtomicLongArray((int) ((numBits + 63) >>> 6));
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * 按预计元素数和期望误判率计算位数 m = -n·ln(p)/ln²2、哈希次数 k = m/n·ln2。
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        long n = Math.max(1L, expectedInsertions);
+        double p = Math.min(0.5, Math.max(1e-9, fpp));
+        long numBits = Math.max(64L, (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2))));
+        numBits = Math.min(numBits, Integer.MAX_VALUE); // 下标由 31 位组合哈希取模得到
+        int numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        return new BloomFilter(numBits, numHashes);
+    }
+
+    public void put(long value) {
+        long hash = mix(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) break;
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(long value) {
+        long hash = mix(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private long index(int combined) {
+        // 双重哈希 h1 + i·h2，取非负后对位数取模
+        return (combined & Integer.MAX_VALUE) % numBits;
+    }
+
+    /**
+     * MurmurHash3 fmix64，把连续的雪花 id 打散到整个 64 位空间。
+     */
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,22 @@
+package com.rita.community.util;
+
+/**
+ * ClientAddress
+ * 作用：取请求方的真实 IP，用于游客去重等需要防刷的场景。
+ * 前端 nginx 用 $remote_addr 覆盖 X-Real-IP，用 $proxy_add_x_forwarded_for 在 X-Forwarded-For 末尾追加；
+ * 客户端能伪造的只有 X-Forwarded-For 的前几段，所以只认 X-Real-IP 或最后一段（代理追加的那一跳），都没有时用连接地址。
+ */
+public class ClientAddress {
+
+    public static String resolve(String realIp, String forwardedFor, String remoteAddr) {
+        if (realIp != null && !realIp.isBlank()) {
+            return realIp.trim();
+        }
+        if (forwardedFor != null) {
+            int comma = forwardedFor.lastIndexOf(',');
+            String last = (comma >= 0 ? forwardedFor.substring(comma + 1) : forwardedFor).trim();
+            if (!last.isEmpty()) return last;
+        }
+        return remoteAddr;
+    }
+}
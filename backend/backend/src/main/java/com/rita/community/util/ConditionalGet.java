@@ -0,0 +1,40 @@
+package com.rita.community.util;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * ConditionalGet
+ * 作用：条件请求（If-None-Match）。调用方用缓存里现成的版本信息拼出 ETag，在查库、拼装、序列化之前比对，
+ * 未变化时直接 304、不带响应体；变化时照常返回，并带上新的 ETag。
+ * ETag 都是弱校验：浏览量、去重访客数这类计数不参与，304 时客户端沿用手里的计数。
+ */
+public class ConditionalGet {
+    // private：只有本人的客户端可以缓存；no-cache：可以存，但每次都要带 ETag 回来验证
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    /**
+     * @param tag ETag 的内容，不含引号和 W/ 前缀
+     * @return true 表示已写好 304，控制器直接 return null 即可
+     */
+    public static boolean notModified(WebRequest request, HttpServletResponse response, String tag) {
+        // 先写 Cache-Control，Spring Security 默认的 no-store 就不会再写进来
+        response.setHeader("Cache-Control", CACHE_CONTROL);
+        return request.checkNotModified("W/\"" + tag + "\"");
+    }
+
+    /**
+     * 把请求参数之类的可变长度文本压成一段短 hex，拼进 ETag。
+     */
+    public static String digest(Object... parts) {
+        long h = 1125899906842597L;
+        for (Object part : parts) {
+            String s = part == null ? "\u0000" : part.toString();
+            for (int i = 0; i < s.length(); i++) {
+                h = 31 * h + s.charAt(i);
+            }
+            h = 31 * h + 0x1F;
+        }
+        return Long.toHexString(h);
+    }
+}
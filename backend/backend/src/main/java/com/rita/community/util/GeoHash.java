@@ -0,0 +1,94 @@
+package com.rita.community.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GeoHash
+ * 作用：地理网格工具。按 geohash 的方式把经纬度各切成 2^15 份后交错成 30 位格子编号（相当于 6 位 geohash，
+ * 每格约 1.1km × 0.6km），并提供球面距离计算和 "覆盖某个圆的所有格子" 查询，供附近技能的内存网格索引使用。
+ */
+public class GeoHash {
+    private static final int AXIS_BITS = 15;
+    private static final int AXIS_CELLS = 1 << AXIS_BITS;
+    private static final double LAT_CELL_DEG = 180.0 / AXIS_CELLS;
+    private static final double LNG_CELL_DEG = 360.0 / AXIS_CELLS;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEG_LAT = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    public static boolean isValid(double lat, double lng) {
+        return lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180;
+    }
+
+    public static long cellOf(double lat, double lng) {
+        return cell(latIndex(lat), lngIndex(lng));
+    }
+
+    /**
+     * 与 (lat, lng) 距离不超过 radiusKm 的点可能落入的所有格子（经纬度外接矩形，经度跨 180° 时回绕）。
+     */
+    public static List<Long> cellsCovering(double lat, double lng, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEG_LAT;
+        int latFrom = latIndex(Math.max(-90.0, lat - latDelta));
+        int latTo = latIndex(Math.min(90.0, lat + latDelta));
+
+        // 外接矩形的经度跨度按离赤道更远的纬线算
+        double maxAbsLat = Math.min(90.0, Math.abs(lat) + latDelta);
+        double cos = Math.cos(Math.toRadians(maxAbsLat));
+        double lngDelta = cos <= 1e-9 ? 180.0 : radiusKm / (KM_PER_DEG_LAT * cos);
+
+        int lngFrom;
+        int lngCount;
+        if (lngDelta >= 180.0) {
+            lngFrom = 0;
+            lngCount = AXIS_CELLS;
+        } else {
+            lngFrom = (int) Math.floor((lng - lngDelta + 180.0) / LNG_CELL_DEG);
+            int lngTo = (int) Math.floor((lng + lngDelta + 180.0) / LNG_CELL_DEG);
+            lngCount = Math.min(AXIS_CELLS, lngTo - lngFrom + 1);
+        }
+
+        List<Long> cells = new ArrayList<>((latTo - latFrom + 1) * lngCount);
+        for (int latIdx = latFrom; latIdx <= latTo; latIdx++) {
+            for (int i = 0; i < lngCount; i++) {
+                int lngIdx = Math.floorMod(lngFrom + i, AXIS_CELLS);
+                cells.add(cell(latIdx, lngIdx));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Haversine 球面距离，单位 km。
+     */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static int latIndex(double lat) {
+        int idx = (int) Math.floor((lat + 90.0) / LAT_CELL_DEG);
+        return Math.max(0, Math.min(AXIS_CELLS - 1, idx));
+    }
+
+    private static int lngIndex(double lng) {
+        int idx = (int) Math.floor((lng + 180.0) / LNG_CELL_DEG);
+        return Math.max(0, Math.min(AXIS_CELLS - 1, idx));
+    }
+
+    /**
+     * 与 geohash 相同：从高位起经度、纬度逐位交错。
+     */
+    private static long cell(int latIdx, int lngIdx) {
+        long code = 0L;
+        for (int bit = AXIS_BITS - 1; bit >= 0; bit--) {
+            code = (code << 1) | ((lngIdx >> bit) & 1);
+            code = (code << 1) | ((latIdx >> bit) & 1);
+        }
+        return code;
+    }
+}
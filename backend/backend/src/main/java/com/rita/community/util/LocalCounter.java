@@ -0,0 +1,62 @@
+package com.rita.community.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LocalCounter
+ * 作用：进程内按 key 聚合的计数器，热点计数先在本地攒着，再由调用方定期 drain 批量刷出。
+ * 每个 key 一个 LongAdder，同一 key 的并发自增分散在多个 cell 上，不会争同一个 CAS。
+ * drain 时连续一轮没有新增的 key 会被移除，内存只与最近活跃的 key 数成正比；
+ * 自增恰好落在刚被移除的 adder 上时，由自增方把残留转移到新 adder，计数不丢也不重。
+ */
+public final class LocalCounter<K> {
+    private final ConcurrentHashMap<K, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Object drainLock = new Object();
+
+    public void increment(K key) {
+        add(key, 1L);
+    }
+
+    public void add(K key, long delta) {
+        if (key == null || delta == 0) return;
+        LongAdder adder = counters.computeIfAbsent(key, (k) -> new LongAdder());
+        adder.add(delta);
+        if (counters.get(key) != adder) {
+            // adder 已被 drain 移除：它的最终结算可能在本次自增之前也可能之后，把剩余的（含本次）挪到新 adder 上。
+            // sumThenReset 逐个 cell getAndSet，同一次自增只会被结算方或转移方之一取走
+            long rest = adder.sumThenReset();
+            if (rest != 0) counters.computeIfAbsent(key, (k) -> new LongAdder()).add(rest);
+        }
+    }
+
+    /**
+     * 本地尚未 drain 出去的计数。
+     */
+    public long get(K key) {
+        if (key == null) return 0L;
+        LongAdder adder = counters.get(key);
+        return adder == null ? 0L : adder.sum();
+    }
+
+    /**
+     * 取走目前为止的全部计数（只含非 0 的 key）。刷出失败时调用方应把结果 add 回来。
+     */
+    public Map<K, Long> drain() {
+        synchronized (drainLock) {
+            Map<K, Long> out = new HashMap<>();
+            for (Map.Entry<K, LongAdder> e : counters.entrySet()) {
+                LongAdder adder = e.getValue();
+                long n = adder.sumThenReset();
+                if (n == 0 && counters.remove(e.getKey(), adder)) {
+                    // 移除后再结算一次，收走移除前最后一刻落下的自增
+                    n = adder.sumThenReset();
+                }
+                if (n != 0) out.merge(e.getKey(), n, Long::sum);
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.rita.community.util;
+
+/**
+ * TextSnippet
+ * 作用：列表卡片用的文本摘要，按字符（码点）截断，超出时以 "…" 结尾，与 MySQL LEFT() 的计数方式一致。
+ */
+public class TextSnippet {
+
+    public static String of(String text, int maxChars) {
+        if (text == null || maxChars <= 0) return text;
+        if (text.codePointCount(0, text.length()) <= maxChars) return text;
+        int end = text.offsetByCodePoints(0, maxChars);
+        return text.substring(0, end) + "…";
+    }
+}
@@ -218,6 +218,54 @@ PREPARE stmt_skill_view_count FROM @sql_skill_view_count;
 EXECUTE stmt_skill_view_count;
 DEALLOCATE PREPARE stmt_skill_view_count;
 
+-- 关键词检索用的 ngram 全文索引（中文无空格分词）
+SET @has_skill_fulltext := (
+  SELECT COUNT(*)
+  FROM INFORMATION_SCHEMA.STATISTICS
+  WHERE TABLE_SCHEMA = DATABASE()
+    AND TABLE_NAME = 'skill'
+    AND INDEX_NAME = 'ft_skill_title_desc'
+);
+SET @sql_skill_fulltext := IF(@has_skill_fulltext = 0,
+  'ALTER TABLE skill ADD FULLTEXT INDEX ft_skill_title_desc (title, description) WITH PARSER ngram',
+  'SELECT 1'
+);
+PREPARE stmt_skill_fulltext FROM @sql_skill_fulltext;
+EXECUTE stmt_skill_fulltext;
+DEALLOCATE PREPARE stmt_skill_fulltext;
+
+-- 按分类游标翻页：(category, status, created_at, id) 顺序读，不回表排序
+SET @has_skill_category_created := (
+  SELECT COUNT(*)
+  FROM INFORMATION_SCHEMA.STATISTICS
+  WHERE TABLE_SCHEMA = DATABASE()
+    AND TABLE_NAME = 'skill'
+    AND INDEX_NAME = 'idx_skill_category_created'
+);
+SET @sql_skill_category_created := IF(@has_skill_category_created = 0,
+  'ALTER TABLE skill ADD INDEX idx_skill_category_created (category, status, created_at, id)',
+  'SELECT 1'
+);
+PREPARE stmt_skill_category_created FROM @sql_skill_category_created;
+EXECUTE stmt_skill_category_created;
+DEALLOCATE PREPARE stmt_skill_category_created;
+
+-- 各节点的技能目录按 updated_at 水位增量刷新
+SET @has_skill_updated := (
+  SELECT COUNT(*)
+  FROM INFORMATION_SCHEMA.STATISTICS
+  WHERE TABLE_SCHEMA = DATABASE()
+    AND TABLE_NAME = 'skill'
+    AND INDEX_NAME = 'idx_skill_updated'
+);
+SET @sql_skill_updated := IF(@has_skill_updated = 0,
+  'ALTER TABLE skill ADD INDEX idx_skill_updated (updated_at, id)',
+  'SELECT 1'
+);
+PREPARE stmt_skill_updated FROM @sql_skill_updated;
+EXECUTE stmt_skill_updated;
+DEALLOCATE PREPARE stmt_skill_updated;
+
 CREATE TABLE IF NOT EXISTS user_event (
   id BIGINT PRIMARY KEY,
   user_id BIGINT NOT NULL,
@@ -229,3 +277,47 @@ CREATE TABLE IF NOT EXISTS user_event (
   KEY idx_user_event_type (user_id, event_type),
   KEY idx_user_event_skill (skill_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 搜索联想按 (event_type, created_at) 取窗口内的搜索记录
+SET @has_user_event_type_time := (
+  SELECT COUNT(*)
+  FROM INFORMATION_SCHEMA.STATISTICS
+  WHERE TABLE_SCHEMA = DATABASE()
+    AND TABLE_NAME = 'user_event'
+    AND INDEX_NAME = 'idx_user_event_type_time'
+);
+SET @sql_user_event_type_time := IF(@has_user_event_type_time = 0,
+  'ALTER TABLE user_event ADD INDEX idx_user_event_type_time (event_type, created_at)',
+  'SELECT 1'
+);
+PREPARE stmt_user_event_type_time FROM @sql_user_event_type_time;
+EXECUTE stmt_user_event_type_time;
+DEALLOCATE PREPARE stmt_user_event_type_time;
+
+CREATE TABLE IF NOT EXISTS skill_cooccurrence (
+  skill_id BIGINT PRIMARY KEY,
+  neighbors TEXT NOT NULL,
+  updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 各节点按 updated_at 水位增量重载近邻表
+SET @has_cooccurrence_updated := (
+  SELECT COUNT(*)
+  FROM INFORMATION_SCHEMA.STATISTICS
+  WHERE TABLE_SCHEMA = DATABASE()
+    AND TABLE_NAME = 'skill_cooccurrence'
+    AND INDEX_NAME = 'idx_cooccurrence_updated'
+);
+SET @sql_cooccurrence_updated := IF(@has_cooccurrence_updated = 0,
+  'ALTER TABLE skill_cooccurrence ADD INDEX idx_cooccurrence_updated (updated_at, skill_id)',
+  'SELECT 1'
+);
+PREPARE stmt_cooccurrence_updated FROM @sql_cooccurrence_updated;
+EXECUTE stmt_cooccurrence_updated;
+DEALLOCATE PREPARE stmt_cooccurrence_updated;
+
+CREATE TABLE IF NOT EXISTS recommend_job_state (
+  job_name VARCHAR(64) PRIMARY KEY,
+  last_event_id BIGINT NOT NULL DEFAULT 0,
+  updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
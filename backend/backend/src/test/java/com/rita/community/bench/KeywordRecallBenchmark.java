@@ -0,0 +1,123 @@
+package com.rita.community.bench;
+
+import com.rita.community.entity.Skill;
+import com.rita.community.service.SkillKeywordIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KeywordRecallBenchmark
+ * 作用：对比推荐关键词召回的两种实现——逐条 trim/toLowerCase/contains 扫描 与 n-gram 倒排索引。
+ * 运行：mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.rita.community.bench.KeywordRecallBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class KeywordRecallBenchmark {
+    static final String[] SERVICES = {
+            "钢琴", "吉他", "英语", "数学", "编程", "修电脑", "摄影", "跑腿", "家电维修", "平面设计",
+            "python", "java", "搬家", "保洁", "宠物寄养", "健身", "瑜伽", "插画", "剪辑", "翻译"
+    };
+    static final String[] FILLERS = {
+            "专业", "上门", "一对一", "周末", "经验丰富", "价格实惠", "小区", "附近", "可议价", "快速响应"
+    };
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private List<Skill> skills;
+    private SkillKeywordIndex index;
+    private final List<String> keywords = List.of("钢琴", "修电脑", "python");
+
+    @Setup
+    public void setup() {
+        skills = generateSkills(size, 42L);
+        index = SkillKeywordIndex.build(skills);
+    }
+
+    @Benchmark
+    public Set<Long> scan() {
+        Set<Long> matched = new HashSet<>();
+        for (Skill skill : skills) {
+            if (containsKeyword(keywords, skill)) {
+                matched.add(skill.getId());
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public Set<Long> invertedIndex() {
+        return index.match(keywords);
+    }
+
+    static List<Skill> generateSkills(int count, long seed) {
+        Random random = new Random(seed);
+        List<Skill> skills = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String service = SERVICES[random.nextInt(SERVICES.length)];
+            StringBuilder desc = new StringBuilder();
+            int words = 8 + random.nextInt(24);
+            for (int w = 0; w < words; w++) {
+                desc.append(random.nextInt(4) == 0
+                        ? SERVICES[random.nextInt(SERVICES.length)]
+                        : FILLERS[random.nextInt(FILLERS.length)]);
+            }
+            Skill skill = new Skill();
+            skill.setId(1_000_000_000L + i);
+            skill.setTitle(FILLERS[random.nextInt(FILLERS.length)] + service + "服务");
+            skill.setDescription(desc.toString());
+            skills.add(skill);
+        }
+        return skills;
+    }
+
+    /**
+     * 原 RecommendServiceImpl.containsKeyword 的扫描实现。
+     */
+    private static boolean containsKeyword(List<String> keywords, Skill skill) {
+        if (keywords.isEmpty()) return false;
+        String title = normalizeText(skill.getTitle()).toLowerCase(Locale.ROOT);
+        String desc = normalizeText(skill.getDescription()).toLowerCase(Locale.ROOT);
+        for (String raw : keywords) {
+            String keyword = normalizeText(raw).toLowerCase(Locale.ROOT);
+            if (keyword.isEmpty()) continue;
+            if (title.contains(keyword) || desc.contains(keyword)) return true;
+        }
+        return false;
+    }
+
+    private static String normalizeText(String text) {
+        if (text == null) return "";
+        return text.trim();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(KeywordRecallBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
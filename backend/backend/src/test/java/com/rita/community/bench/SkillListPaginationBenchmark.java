@@ -0,0 +1,188 @@
+package com.rita.community.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SkillListPaginationBenchmark
+ * 作用：对比技能列表的两种翻页方式在第 1 页和第 1000 页的耗时——
+ * OFFSET 分页（LIMIT ? OFFSET ? 加一条 COUNT(*)，即 GET /api/skills）与 (created_at, id) 游标翻页（GET /api/skills/scroll）。
+ * 需要一个可写的 MySQL，在 bench_skill 表里灌数据（与 skill 表相同的列和索引），不碰业务表。
+ * 运行：mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.rita.community.bench.SkillListPaginationBenchmark
+ * -Dbench.jdbc.url=jdbc:mysql://localhost:3306/community -Dbench.jdbc.user=root -Dbench.jdbc.password=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SkillListPaginationBenchmark {
+    static final int PAGE_SIZE = 10;
+    static final String COLUMNS = "id, user_id, title, description, category, price, status, created_at, image_url, view_count";
+
+    @Param({"200000"})
+    public int rows;
+
+    @Param({"1", "1000"})
+    public int page;
+
+    private Connection connection;
+    private PreparedStatement offsetQuery;
+    private PreparedStatement countQuery;
+    private PreparedStatement keysetQuery;
+    private PreparedStatement firstPageQuery;
+    private Timestamp cursorCreatedAt;
+    private long cursorId;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:mysql://localhost:3306/community?useSSL=false&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true"),
+                System.getProperty("bench.jdbc.user", "root"),
+                System.getProperty("bench.jdbc.password", ""));
+        seed();
+
+        offsetQuery = connection.prepareStatement("SELECT " + COLUMNS + " FROM bench_skill WHERE status = 1"
+                + " ORDER BY created_at DESC LIMIT ? OFFSET ?");
+        countQuery = connection.prepareStatement("SELECT COUNT(*) FROM bench_skill WHERE status = 1");
+        firstPageQuery = connection.prepareStatement("SELECT " + COLUMNS + " FROM bench_skill WHERE status = 1"
+                + " ORDER BY created_at DESC, id DESC LIMIT ?");
+        keysetQuery = connection.prepareStatement("SELECT " + COLUMNS + " FROM bench_skill WHERE status = 1"
+                + " AND (created_at < ? OR (created_at = ? AND id < ?)) ORDER BY created_at DESC, id DESC LIMIT ?");
+
+        // 游标翻页到第 page 页需要上一页最后一条的 (created_at, id)，这里一次性定位好，只测单页查询本身
+        if (page > 1) {
+            try (PreparedStatement ps = connection.prepareStatement("SELECT created_at, id FROM bench_skill WHERE status = 1"
+                    + " ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET ?")) {
+                ps.setInt(1, (page - 1) * PAGE_SIZE - 1);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    cursorCreatedAt = rs.getTimestamp(1);
+                    cursorId = rs.getLong(2);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Long> offset() throws SQLException {
+        offsetQuery.setInt(1, PAGE_SIZE);
+        offsetQuery.setInt(2, (page - 1) * PAGE_SIZE);
+        List<Long> ids = readIds(offsetQuery);
+        try (ResultSet rs = countQuery.executeQuery()) {
+            rs.next();
+            ids.add(rs.getLong(1));
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public List<Long> keyset() throws SQLException {
+        if (page == 1) {
+            firstPageQuery.setInt(1, PAGE_SIZE + 1);
+            return readIds(firstPageQuery);
+        }
+        keysetQuery.setTimestamp(1, cursorCreatedAt);
+        keysetQuery.setTimestamp(2, cursorCreatedAt);
+        keysetQuery.setLong(3, cursorId);
+        keysetQuery.setInt(4, PAGE_SIZE + 1);
+        return readIds(keysetQuery);
+    }
+
+    private List<Long> readIds(PreparedStatement ps) throws SQLException {
+        List<Long> ids = new ArrayList<>(PAGE_SIZE + 2);
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private void seed() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS bench_skill ("
+                    + " id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, title VARCHAR(128) NOT NULL,"
+                    + " description VARCHAR(1000) NULL, category VARCHAR(64) NULL,"
+                    + " price DECIMAL(10,2) NOT NULL DEFAULT 0.00, status INT NOT NULL DEFAULT 1,"
+                    + " created_at DATETIME NOT NULL, image_url VARCHAR(500) NULL, view_count INT NOT NULL DEFAULT 0,"
+                    + " KEY idx_skill_category_status (category, status), KEY idx_skill_created (created_at)"
+                    + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+            try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM bench_skill")) {
+                rs.next();
+                if (rs.getLong(1) == rows) return;
+            }
+            st.execute("TRUNCATE TABLE bench_skill");
+        }
+
+        Random random = new Random(42L);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        connection.setAutoCommit(false);
+        try (PreparedStatement ps = connection.prepareStatement("INSERT INTO bench_skill"
+                + " (id, user_id, title, description, category, price, status, created_at, image_url, view_count)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                String service = KeywordRecallBenchmark.SERVICES[random.nextInt(KeywordRecallBenchmark.SERVICES.length)];
+                ps.setLong(1, i);
+                ps.setLong(2, 1 + random.nextInt(5000));
+                ps.setString(3, service + "服务 #" + i);
+                ps.setString(4, "提供" + service + "相关帮助，" + KeywordRecallBenchmark.FILLERS[random.nextInt(KeywordRecallBenchmark.FILLERS.length)]);
+                ps.setString(5, "分类" + random.nextInt(12));
+                ps.setInt(6, 10 + random.nextInt(500));
+                ps.setInt(7, random.nextInt(20) == 0 ? 0 : 1);
+                // 每分钟一条左右，偶尔同一秒多条，覆盖 created_at 相同靠 id 区分的情况
+                ps.setTimestamp(8, Timestamp.valueOf(start.plusSeconds(i * 60L - random.nextInt(2) * 60L)));
+                ps.setString(9, null);
+                ps.setInt(10, random.nextInt(1000));
+                ps.addBatch();
+                if (i % 5000 == 0) {
+                    ps.executeBatch();
+                    connection.commit();
+                }
+            }
+            ps.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SkillListPaginationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
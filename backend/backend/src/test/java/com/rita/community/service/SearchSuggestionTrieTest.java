@@ -0,0 +1,63 @@
+package com.rita.community.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchSuggestionTrieTest {
+    private static final String[] WORDS = {"钢琴", "钢笔字", "吉他", "java", "javascript", "python", "摄影", "英语", "英语口语", "修电脑"};
+
+    @Test
+    void suggestEqualsBruteForceTopN() {
+        Random random = new Random(11);
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            String query = WORDS[random.nextInt(WORDS.length)];
+            if (random.nextBoolean()) query = query + " " + WORDS[random.nextInt(WORDS.length)];
+            if (random.nextInt(5) == 0) query = query.toUpperCase();
+            counts.merge(query, (long) (1 + random.nextInt(50)), Long::sum);
+        }
+        SearchSuggestionTrie trie = SearchSuggestionTrie.build(counts, 10);
+
+        Map<String, Long> merged = new HashMap<>();
+        for (Map.Entry<String, Long> e : counts.entrySet()) {
+            merged.merge(SearchSuggestionTrie.normalize(e.getKey()), e.getValue(), Long::sum);
+        }
+        List<String> prefixes = new ArrayList<>(List.of("钢", "钢琴", "JA", "java ", "英语口", "摄影 吉", "x", "  py"));
+        for (String query : merged.keySet()) {
+            prefixes.add(query.substring(0, 1 + random.nextInt(query.length())));
+        }
+
+        for (String prefix : prefixes) {
+            String p = SearchSuggestionTrie.normalize(prefix);
+            List<Map.Entry<String, Long>> expected = new ArrayList<>();
+            for (Map.Entry<String, Long> e : merged.entrySet()) {
+                if (e.getKey().startsWith(p)) expected.add(e);
+            }
+            expected.sort((a, b) -> {
+                int cmp = Long.compare(b.getValue(), a.getValue());
+                return cmp != 0 ? cmp : a.getKey().compareTo(b.getKey());
+            });
+            List<String> expectedQueries = new ArrayList<>();
+            for (int i = 0; i < expected.size() && i < 5; i++) {
+                expectedQueries.add(expected.get(i).getKey());
+            }
+            assertEquals(expectedQueries, trie.suggest(prefix, 5), "prefix=" + prefix);
+        }
+    }
+
+    @Test
+    void blankPrefixAndEmptyTrieReturnNothing() {
+        assertTrue(SearchSuggestionTrie.empty().suggest("钢", 10).isEmpty());
+        SearchSuggestionTrie trie = SearchSuggestionTrie.build(Map.of("钢琴", 3L), 10);
+        assertTrue(trie.suggest("   ", 10).isEmpty());
+        assertEquals(List.of("钢琴"), trie.suggest("钢", 10));
+    }
+}
@@ -0,0 +1,100 @@
+package com.rita.community.service;
+
+import com.rita.community.entity.Skill;
+import com.rita.community.util.GeoHash;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SkillGeoIndexTest {
+
+    @Test
+    void withinEqualsBruteForceScanAcrossEdits() {
+        Random random = new Random(5);
+        Map<Long, Skill> skills = new LinkedHashMap<>();
+        for (long id = 1; id <= 2000; id++) {
+            skills.put(id, randomSkill(random, id));
+        }
+        SkillGeoIndex index = SkillGeoIndex.build(skills.values());
+
+        for (int round = 0; round < 2000; round++) {
+            long id = 1 + random.nextInt(2500);
+            if (random.nextInt(4) == 0) {
+                skills.remove(id);
+                index.remove(id);
+            } else {
+                Skill skill = randomSkill(random, id);
+                skills.put(id, skill);
+                index.upsert(skill);
+            }
+            if (round % 100 == 0) {
+                assertSameAsScan(index, skills, random);
+            }
+        }
+        assertSameAsScan(index, skills, random);
+    }
+
+    @Test
+    void coversCellsAcrossTheAntimeridian() {
+        Skill east = skill(1L, 0.0, 179.99);
+        Skill west = skill(2L, 0.0, -179.99);
+        SkillGeoIndex index = SkillGeoIndex.build(List.of(east, west));
+
+        List<SkillGeoIndex.Hit> hits = index.within(0.0, 179.995, 5);
+
+        assertEquals(2, hits.size());
+    }
+
+    private void assertSameAsScan(SkillGeoIndex index, Map<Long, Skill> skills, Random random) {
+        for (int i = 0; i < 20; i++) {
+            double lat = 30.5 + random.nextDouble() * 0.5;
+            double lng = 104.0 + random.nextDouble() * 0.5;
+            double radiusKm = 0.2 + random.nextDouble() * 15;
+
+            List<String> expected = new ArrayList<>();
+            List<Skill> inRange = new ArrayList<>();
+            for (Skill skill : skills.values()) {
+                if (skill.getLat() == null || skill.getLng() == null) continue;
+                double d = GeoHash.distanceKm(lat, lng, skill.getLat().doubleValue(), skill.getLng().doubleValue());
+                if (d <= radiusKm) inRange.add(skill);
+            }
+            inRange.sort((a, b) -> {
+                double da = GeoHash.distanceKm(lat, lng, a.getLat().doubleValue(), a.getLng().doubleValue());
+                double db = GeoHash.distanceKm(lat, lng, b.getLat().doubleValue(), b.getLng().doubleValue());
+                int cmp = Double.compare(da, db);
+                return cmp != 0 ? cmp : Long.compare(a.getId(), b.getId());
+            });
+            for (Skill skill : inRange) {
+                expected.add(String.valueOf(skill.getId()));
+            }
+
+            List<String> actual = new ArrayList<>();
+            for (SkillGeoIndex.Hit hit : index.within(lat, lng, radiusKm)) {
+                actual.add(String.valueOf(hit.getSkillId()));
+            }
+            assertEquals(expected, actual, "lat=" + lat + ", lng=" + lng + ", radiusKm=" + radiusKm);
+        }
+    }
+
+    private Skill randomSkill(Random random, long id) {
+        if (random.nextInt(10) == 0) {
+            return skill(id, null, null); // 没有坐标的技能不进索引
+        }
+        return skill(id, 30.4 + random.nextDouble() * 0.7, 103.9 + random.nextDouble() * 0.7);
+    }
+
+    private Skill skill(long id, Double lat, Double lng) {
+        Skill skill = new Skill();
+        skill.setId(id);
+        skill.setLat(lat == null ? null : BigDecimal.valueOf(lat));
+        skill.setLng(lng == null ? null : BigDecimal.valueOf(lng));
+        return skill;
+    }
+}
@@ -0,0 +1,89 @@
+package com.rita.community.service;
+
+import com.rita.community.entity.Skill;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SkillKeywordIndexTest {
+    private static final String[] WORDS = {
+            "钢琴", "吉他", "修电脑", "Python", "java", "上门", "家教", "摄影", "a", "琴", "  "
+    };
+
+    @Test
+    void matchEqualsContainsScanAcrossEdits() {
+        Random random = new Random(3);
+        Map<Long, Skill> skills = new LinkedHashMap<>();
+        for (long id = 1; id <= 500; id++) {
+            skills.put(id, randomSkill(random, id));
+        }
+        SkillKeywordIndex index = SkillKeywordIndex.build(skills.values());
+
+        for (int round = 0; round < 3000; round++) {
+            long id = 1 + random.nextInt(600);
+            if (random.nextInt(3) == 0) {
+                skills.remove(id);
+                index.remove(id);
+            } else {
+                Skill skill = randomSkill(random, id);
+                skills.put(id, skill);
+                index.upsert(skill);
+            }
+            if (round % 100 == 0) {
+                assertSameAsScan(index, skills, random);
+            }
+        }
+        assertEquals(skills.size(), index.size());
+        assertSameAsScan(index, skills, random);
+    }
+
+    private void assertSameAsScan(SkillKeywordIndex index, Map<Long, Skill> skills, Random random) {
+        for (int i = 0; i < 20; i++) {
+            List<String> keywords = List.of(WORDS[random.nextInt(WORDS.length)], WORDS[random.nextInt(WORDS.length)]);
+            assertEquals(scan(skills, keywords), index.match(keywords), "keywords=" + keywords);
+        }
+    }
+
+    private Set<Long> scan(Map<Long, Skill> skills, List<String> keywords) {
+        Set<Long> matched = new HashSet<>();
+        for (Skill skill : skills.values()) {
+            String title = skill.getTitle() == null ? "" : skill.getTitle().trim().toLowerCase(Locale.ROOT);
+            String desc = skill.getDescription() == null ? "" : skill.getDescription().trim().toLowerCase(Locale.ROOT);
+            for (String raw : keywords) {
+                String keyword = raw.trim().toLowerCase(Locale.ROOT);
+                if (keyword.isEmpty()) continue;
+                if (title.contains(keyword) || desc.contains(keyword)) {
+                    matched.add(skill.getId());
+                    break;
+                }
+            }
+        }
+        return matched;
+    }
+
+    private Skill randomSkill(Random random, long id) {
+        Skill skill = new Skill();
+        skill.setId(id);
+        skill.setTitle(randomText(random, 3));
+        skill.setDescription(random.nextInt(5) == 0 ? null : randomText(random, 8));
+        return skill;
+    }
+
+    private String randomText(Random random, int maxWords) {
+        List<String> words = new ArrayList<>();
+        int count = 1 + random.nextInt(maxWords);
+        for (int i = 0; i < count; i++) {
+            words.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return String.join("", words);
+    }
+}
@@ -0,0 +1,124 @@
+package com.rita.community.service.impl;
+
+import com.rita.community.entity.UserEvent;
+import com.rita.community.service.impl.CooccurrenceCounting.Neighbors;
+import com.rita.community.service.impl.CooccurrenceCounting.Visit;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CooccurrenceCountingTest {
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 1, 12, 0);
+    private static final long WINDOW_MS = 72L * 3600 * 1000;
+
+    @Test
+    void pairsAreSymmetricWeightedAndRepeatViewsCountOnce() {
+        List<UserEvent> events = List.of(
+                event(1, 7L, "view", 100L, T0),
+                event(2, 7L, "view", 200L, T0.plusMinutes(1)),
+                event(3, 7L, "view", 100L, T0.plusMinutes(2)),      // 重复浏览，不再计数
+                event(4, 7L, "favorite", 300L, T0.plusMinutes(3)),  // 收藏记 2 次
+                event(5, 8L, "view", 200L, T0),
+                event(6, 8L, "view", 300L, T0.plusMinutes(1)));
+
+        Map<Long, Map<Long, Integer>> delta = CooccurrenceCounting.countPairs(
+                events, new HashMap<>(), (first) -> new ArrayDeque<>(), WINDOW_MS);
+
+        assertEquals(Map.of(200L, 1, 300L, 2), delta.get(100L));
+        assertEquals(Map.of(100L, 1, 300L, 3), delta.get(200L));
+        assertEquals(Map.of(100L, 2, 200L, 3), delta.get(300L));
+    }
+
+    @Test
+    void visitsOutsideWindowDoNotPair() {
+        List<UserEvent> events = List.of(
+                event(1, 7L, "view", 100L, T0),
+                event(2, 7L, "view", 200L, T0.plusHours(73)),
+                event(3, 7L, "view", 300L, T0.plusHours(74)));
+
+        Map<Long, Map<Long, Integer>> delta = CooccurrenceCounting.countPairs(
+                events, new HashMap<>(), (first) -> new ArrayDeque<>(), WINDOW_MS);
+
+        assertNull(delta.get(100L));
+        assertEquals(Map.of(300L, 1), delta.get(200L));
+    }
+
+    @Test
+    void historyIsLoadedOncePerUserAndCarriedAcrossChunks() {
+        Map<Long, Deque<Visit>> histories = new HashMap<>();
+        List<Long> loadedFor = new ArrayList<>();
+        // 块之前的历史：用户 7 看过 50
+        Function<UserEvent, Deque<Visit>> loader = (first) -> {
+            loadedFor.add(first.getUserId());
+            Deque<Visit> history = new ArrayDeque<>();
+            history.add(new Visit(50L, CooccurrenceCounting.toMillis(T0.minusHours(1))));
+            return history;
+        };
+
+        Map<Long, Map<Long, Integer>> first = CooccurrenceCounting.countPairs(
+                List.of(event(1, 7L, "view", 100L, T0)), histories, loader, WINDOW_MS);
+        Map<Long, Map<Long, Integer>> second = CooccurrenceCounting.countPairs(
+                List.of(event(2, 7L, "view", 200L, T0.plusMinutes(5))), histories, loader, WINDOW_MS);
+
+        assertEquals(List.of(7L), loadedFor);
+        assertEquals(Map.of(50L, 1), first.get(100L));
+        assertEquals(Map.of(100L, 1, 50L, 1), second.get(200L));
+    }
+
+    @Test
+    void historyIsCappedAtHistorySize() {
+        List<UserEvent> events = new ArrayList<>();
+        for (int i = 0; i <= CooccurrenceCounting.HISTORY_SIZE + 1; i++) {
+            events.add(event(i + 1, 7L, "view", 1000L + i, T0.plusMinutes(i)));
+        }
+        Map<Long, Deque<Visit>> histories = new HashMap<>();
+        Map<Long, Map<Long, Integer>> delta = CooccurrenceCounting.countPairs(
+                events, histories, (first) -> new ArrayDeque<>(), WINDOW_MS);
+
+        assertEquals(CooccurrenceCounting.HISTORY_SIZE, histories.get(7L).size());
+        // 最后一次浏览只和最近 HISTORY_SIZE 个技能配对，最早的 1000 已被挤出
+        long lastSkill = 1000L + CooccurrenceCounting.HISTORY_SIZE + 1;
+        assertEquals(CooccurrenceCounting.HISTORY_SIZE, delta.get(lastSkill).size());
+        assertNull(delta.get(lastSkill).get(1000L));
+    }
+
+    @Test
+    void neighborsTopKeepsHighestCountsAndRoundTrips() {
+        Map<Long, Integer> counts = Map.of(1L, 5, 2L, 9, 3L, 5, 4L, 1);
+        Neighbors top = Neighbors.top(counts, 3);
+
+        // 次数降序，同次数按 id 降序
+        assertEquals("2:9,3:5,1:5", top.encode());
+        assertEquals(Map.of(2L, 9, 3L, 5, 1L, 5), top.toMap());
+        assertEquals(top.encode(), Neighbors.decode(top.encode()).encode());
+        assertEquals("", Neighbors.top(counts, 0).encode());
+    }
+
+    @Test
+    void decodeSkipsCorruptEntries() {
+        assertEquals("1:2,4:5", Neighbors.decode("1:2,x:3,:7,4:5,9").encode());
+        assertTrue(Neighbors.decode(null).toMap().isEmpty());
+        assertTrue(Neighbors.decode(" ").toMap().isEmpty());
+    }
+
+    private UserEvent event(long id, long userId, String type, long skillId, LocalDateTime at) {
+        UserEvent event = new UserEvent();
+        event.setId(id);
+        event.setUserId(userId);
+        event.setEventType(type);
+        event.setSkillId(skillId);
+        event.setCreatedAt(at);
+        return event;
+    }
+}
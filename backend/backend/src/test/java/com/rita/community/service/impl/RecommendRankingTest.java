@@ -0,0 +1,95 @@
+package com.rita.community.service.impl;
+
+import com.rita.community.entity.Skill;
+import com.rita.community.service.impl.RecommendRanking.CursorKey;
+import com.rita.community.service.impl.RecommendRanking.ScoredSkill;
+import com.rita.community.service.impl.RecommendRanking.TopK;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecommendRankingTest {
+
+    @Test
+    void topKMatchesFullSortOnEveryPage() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            List<ScoredSkill> candidates = randomCandidates(random, 1 + random.nextInt(300));
+            int pageSize = 1 + random.nextInt(25);
+
+            String cursor = null;
+            while (true) {
+                List<ScoredSkill> expected = fullSortPage(candidates, cursor, pageSize);
+                TopK actual = RecommendRanking.selectAfter(candidates, CursorKey.parse(cursor), pageSize);
+
+                assertEquals(ids(expected), ids(actual.items));
+                if (!actual.hasMore) break;
+                cursor = RecommendRanking.toCursor(actual.items.get(actual.items.size() - 1));
+            }
+        }
+    }
+
+    @Test
+    void tiesBreakByCreatedEpochThenSkillId() {
+        List<ScoredSkill> candidates = new ArrayList<>();
+        candidates.add(scored(1L, 0.5, 1000L));
+        candidates.add(scored(2L, 0.5, 2000L));
+        candidates.add(scored(3L, 0.5, 2000L));
+        candidates.add(scored(4L, 0.9, 10L));
+        Collections.shuffle(candidates, new Random(7));
+
+        TopK page = RecommendRanking.selectAfter(candidates, null, 3);
+
+        assertEquals(List.of(4L, 3L, 2L), ids(page.items));
+        assertTrue(page.hasMore);
+
+        TopK next = RecommendRanking.selectAfter(candidates,
+                CursorKey.parse(RecommendRanking.toCursor(page.items.get(2))), 3);
+        assertEquals(List.of(1L), ids(next.items));
+        assertFalse(next.hasMore);
+    }
+
+    /**
+     * 旧实现：全量排序 → 按游标过滤 → 截取前 pageSize 个。
+     */
+    private List<ScoredSkill> fullSortPage(List<ScoredSkill> candidates, String cursor, int pageSize) {
+        List<ScoredSkill> sorted = new ArrayList<>(candidates);
+        sorted.sort(RecommendRanking.ORDER);
+        CursorKey cursorKey = CursorKey.parse(cursor);
+        if (cursorKey != null) {
+            sorted = sorted.stream()
+                    .filter((item) -> RecommendRanking.isAfterCursor(item, cursorKey))
+                    .collect(Collectors.toList());
+        }
+        return sorted.subList(0, Math.min(pageSize, sorted.size()));
+    }
+
+    private List<ScoredSkill> randomCandidates(Random random, int count) {
+        List<ScoredSkill> candidates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // 分数和时间都取少量离散值，制造大量并列
+            double score = random.nextInt(8) / 8.0;
+            long createdEpoch = 1_700_000_000_000L + random.nextInt(5) * 1000L;
+            candidates.add(scored(1000L + i, score, createdEpoch));
+        }
+        return candidates;
+    }
+
+    private ScoredSkill scored(long id, double score, long createdEpoch) {
+        Skill skill = new Skill();
+        skill.setId(id);
+        return new ScoredSkill(skill, id, score, createdEpoch);
+    }
+
+    private List<Long> ids(List<ScoredSkill> items) {
+        return items.stream().map((item) -> item.skillId).collect(Collectors.toList());
+    }
+}
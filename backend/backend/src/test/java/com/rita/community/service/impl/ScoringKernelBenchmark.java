@@ -0,0 +1,141 @@
+package com.rita.community.service.impl;
+
+import com.rita.community.entity.Skill;
+import com.rita.community.service.impl.RecommendRanking.ScoredSkill;
+import com.rita.community.service.impl.RecommendRanking.TopK;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScoringKernelBenchmark
+ * 作用：对比推荐打分的三种实现——原 scoreSkills（List&lt;Skill&gt; 两遍扫描 + 每条一个 ScoredSkill）、
+ * 打分内核单线程、打分内核 ForkJoin 并行，均取前 500 名（与个性化首页快照一致）。
+ * 吞吐量单位 ops/s；kernelParallel 的结果除以 CPU 核数即每核吞吐，可直接与 kernelSerial 对比并行效率。
+ * 内核是包内可见的，所以基准放在 service.impl 包下。
+ * 运行：mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.rita.community.service.impl.ScoringKernelBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ScoringKernelBenchmark {
+    private static final String[] CATEGORIES = {"家教", "维修", "摄影", "设计", "跑腿", "健身", "编程", "翻译"};
+    private static final int TOP_K = 500;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private List<Skill> skills;
+    private ScoringKernel kernel;
+    private ScoringKernel.Query query;
+    private final List<String> categories = List.of("家教", "编程");
+    private Set<Long> keywordIds;
+
+    @Setup
+    public void setup() {
+        skills = generateSkills(size, 42L);
+        kernel = ScoringKernel.build(1L, skills);
+        Random random = new Random(7);
+        keywordIds = new HashSet<>();
+        for (int i = 0; i < size / 50; i++) {
+            keywordIds.add(skills.get(random.nextInt(size)).getId());
+        }
+        query = kernel.query(true, categories, keywordIds);
+    }
+
+    @Benchmark
+    public TopK legacy() {
+        return RecommendRanking.selectAfter(legacyScore(skills, categories, keywordIds), null, TOP_K);
+    }
+
+    @Benchmark
+    public TopK kernelSerial() {
+        return kernel.select(query, null, TOP_K, false);
+    }
+
+    @Benchmark
+    public TopK kernelParallel() {
+        return kernel.select(query, null, TOP_K, true);
+    }
+
+    static List<Skill> generateSkills(int count, long seed) {
+        Random random = new Random(seed);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Skill> skills = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Skill skill = new Skill();
+            skill.setId(1_000_000_000L + i);
+            skill.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            skill.setCreatedAt(base.plusMinutes(random.nextInt(525_600)));
+            skill.setViewCount(random.nextInt(5_000));
+            skills.add(skill);
+        }
+        return skills;
+    }
+
+    /**
+     * 原 RecommendServiceImpl.scoreSkills 的实现（有兴趣画像、命中充足的分支）。
+     */
+    private static List<ScoredSkill> legacyScore(List<Skill> skills, List<String> categories, Set<Long> keywordIds) {
+        long newest = Long.MIN_VALUE;
+        long oldest = Long.MAX_VALUE;
+        int maxViewCount = 0;
+        for (Skill skill : skills) {
+            long epoch = toEpoch(skill.getCreatedAt());
+            newest = Math.max(newest, epoch);
+            oldest = Math.min(oldest, epoch);
+            maxViewCount = Math.max(maxViewCount, skill.getViewCount() == null ? 0 : Math.max(0, skill.getViewCount()));
+        }
+        List<ScoredSkill> scored = new ArrayList<>();
+        for (Skill skill : skills) {
+            String category = skill.getCategory() == null ? "" : skill.getCategory().trim();
+            boolean categoryMatched = !category.isEmpty() && categories.contains(category);
+            boolean keywordMatched = keywordIds.contains(skill.getId());
+            if (!(categoryMatched || keywordMatched)) continue;
+
+            int viewCount = skill.getViewCount() == null ? 0 : Math.max(0, skill.getViewCount());
+            double hot = maxViewCount > 0 ? (double) viewCount / (double) maxViewCount : 0.0;
+            long epoch = toEpoch(skill.getCreatedAt());
+            double fresh = newest <= oldest ? 1.0
+                    : Math.max(0.0, Math.min(1.0, (double) (epoch - oldest) / (double) (newest - oldest)));
+            double categorySignal = categoryMatched ? 1.0 : 0.8;
+            double score = 0.5 * categorySignal + 0.3 * hot + 0.2 * fresh;
+            scored.add(new ScoredSkill(skill, skill.getId(), score, epoch));
+        }
+        return scored;
+    }
+
+    private static long toEpoch(LocalDateTime time) {
+        if (time == null) return 0L;
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ScoringKernelBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
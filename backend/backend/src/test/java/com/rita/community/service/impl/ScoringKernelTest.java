@@ -0,0 +1,171 @@
+package com.rita.community.service.impl;
+
+import com.rita.community.entity.Skill;
+import com.rita.community.service.impl.RecommendRanking.CursorKey;
+import com.rita.community.service.impl.RecommendRanking.ScoredSkill;
+import com.rita.community.service.impl.RecommendRanking.TopK;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoringKernelTest {
+    private static final String[] CATEGORIES = {"家教", "维修", " 摄影 ", "设计", "", null};
+
+    @Test
+    void serialAndParallelMatchLegacyScoringOnEveryPage() {
+        Random random = new Random(11);
+        List<Skill> skills = randomSkills(random, 25_000);
+        ScoringKernel kernel = ScoringKernel.build(1L, skills);
+
+        for (int round = 0; round < 6; round++) {
+            // round 4 只有少量关键词命中，覆盖召回不足时全量兜底的分支
+            List<String> categories = round % 3 == 0 || round == 4 ? List.of() : List.of(CATEGORIES[random.nextInt(4)].trim());
+            Set<Long> keywordIds = new HashSet<>();
+            int keywordHits = round % 2 == 0 ? 5 : 300;
+            for (int i = 0; i < keywordHits; i++) {
+                keywordIds.add(skills.get(random.nextInt(skills.size())).getId());
+            }
+            boolean hasInterest = round % 3 != 0;
+            if (!hasInterest) keywordIds.clear();
+
+            List<ScoredSkill> legacy = legacyScore(skills, hasInterest, categories, keywordIds);
+            ScoringKernel.Query query = kernel.query(hasInterest, categories, keywordIds);
+            int pageSize = 1 + random.nextInt(60);
+
+            String cursor = null;
+            for (int page = 0; page < 5; page++) {
+                TopK expected = RecommendRanking.selectAfter(legacy, CursorKey.parse(cursor), pageSize);
+                TopK serial = kernel.select(query, CursorKey.parse(cursor), pageSize, false);
+                TopK parallel = kernel.select(query, CursorKey.parse(cursor), pageSize, true);
+
+                assertEquals(snapshot(expected), snapshot(serial), "serial round=" + round + " page=" + page);
+                assertEquals(snapshot(expected), snapshot(parallel), "parallel round=" + round + " page=" + page);
+                if (!expected.hasMore) break;
+                cursor = RecommendRanking.toCursor(expected.items.get(expected.items.size() - 1));
+            }
+        }
+    }
+
+    @Test
+    void hotSignalUsesUniqueViewersWhenProvided() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<Skill> skills = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Skill skill = new Skill();
+            skill.setId(id);
+            skill.setCreatedAt(createdAt);
+            skills.add(skill);
+        }
+        // 1 号被同一个人刷出了最高浏览量，去重访客却最少
+        skills.get(0).setViewCount(1000);
+        skills.get(1).setViewCount(20);
+        skills.get(2).setViewCount(10);
+        Map<Long, Long> viewers = Map.of(1L, 1L, 2L, 15L, 3L, 8L);
+
+        ScoringKernel byViews = ScoringKernel.build(1L, skills);
+        ScoringKernel byViewers = ScoringKernel.build(1L, skills, viewers);
+        ScoringKernel.Query query = byViews.query(false, List.of(), Set.of());
+
+        assertEquals(List.of(1L, 2L, 3L), ids(byViews.select(query, null, 10, false)));
+        assertEquals(List.of(2L, 3L, 1L), ids(byViewers.select(byViewers.query(false, List.of(), Set.of()), null, 10, false)));
+
+        assertTrue(byViewers.builtFrom(1L, viewers));
+        assertFalse(byViewers.builtFrom(1L, Map.of(9L, 1L)));
+        assertFalse(byViewers.builtFrom(2L, viewers));
+        assertTrue(byViews.builtFrom(1L, null));
+    }
+
+    private List<Long> ids(TopK topK) {
+        List<Long> ids = new ArrayList<>();
+        for (ScoredSkill item : topK.items) {
+            ids.add(item.skillId);
+        }
+        return ids;
+    }
+
+    private List<String> snapshot(TopK topK) {
+        List<String> rows = new ArrayList<>();
+        for (ScoredSkill item : topK.items) {
+            rows.add(item.skillId + "@" + item.score + "@" + item.createdEpoch);
+        }
+        rows.add("hasMore=" + topK.hasMore);
+        return rows;
+    }
+
+    /**
+     * 重构前 RecommendServiceImpl.scoreSkills 的实现，作为对照。
+     */
+    private List<ScoredSkill> legacyScore(List<Skill> skills, boolean hasInterest,
+                                          List<String> categories, Set<Long> keywordIds) {
+        long newest = Long.MIN_VALUE;
+        long oldest = Long.MAX_VALUE;
+        int maxViewCount = 0;
+        for (Skill skill : skills) {
+            long epoch = toEpoch(skill.getCreatedAt());
+            newest = Math.max(newest, epoch);
+            oldest = Math.min(oldest, epoch);
+            maxViewCount = Math.max(maxViewCount, viewCount(skill));
+        }
+        List<ScoredSkill> matched = new ArrayList<>();
+        List<ScoredSkill> all = new ArrayList<>();
+        for (Skill skill : skills) {
+            String category = skill.getCategory() == null ? "" : skill.getCategory().trim();
+            boolean categoryMatched = !category.isEmpty() && categories.contains(category);
+            boolean keywordMatched = keywordIds.contains(skill.getId());
+
+            double hot = maxViewCount > 0 ? (double) viewCount(skill) / (double) maxViewCount : 0.0;
+            long epoch = toEpoch(skill.getCreatedAt());
+            double fresh = newest <= oldest ? 1.0
+                    : Math.max(0.0, Math.min(1.0, (double) (epoch - oldest) / (double) (newest - oldest)));
+            double score;
+            if (!hasInterest) {
+                score = 0.6 * hot + 0.4 * fresh;
+            } else {
+                double categorySignal = categoryMatched ? 1.0 : (keywordMatched ? 0.8 : 0.0);
+                score = 0.5 * categorySignal + 0.3 * hot + 0.2 * fresh;
+            }
+            ScoredSkill item = new ScoredSkill(skill, skill.getId(), score, epoch);
+            all.add(item);
+            if (categoryMatched || keywordMatched) matched.add(item);
+        }
+        if (!hasInterest || matched.size() < ScoringKernel.MIN_RECALL_SIZE) return all;
+        return matched;
+    }
+
+    private List<Skill> randomSkills(Random random, int count) {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<Skill> skills = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Skill skill = new Skill();
+            skill.setId(1_000L + i);
+            skill.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            // 时间和浏览量取值范围很小，制造大量同分
+            skill.setCreatedAt(random.nextInt(20) == 0 ? null : base.plusHours(random.nextInt(50)));
+            skill.setViewCount(random.nextInt(10) == 0 ? null : random.nextInt(30) - 2);
+            skills.add(skill);
+        }
+        Collections.shuffle(skills, random);
+        return skills;
+    }
+
+    private int viewCount(Skill skill) {
+        return skill.getViewCount() == null ? 0 : Math.max(0, skill.getViewCount());
+    }
+
+    private long toEpoch(LocalDateTime time) {
+        if (time == null) return 0L;
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
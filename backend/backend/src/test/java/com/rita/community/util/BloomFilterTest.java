@@ -0,0 +1,40 @@
+package com.rita.community.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void noFalseNegativesAndFalsePositiveRateNearTarget() {
+        // 模拟雪花 id：时间戳递增、低位为序列号
+        Random random = new Random(3);
+        Set<Long> ids = new HashSet<>();
+        long ts = 500_000_000_000L;
+        while (ids.size() < 100_000) {
+            ts += random.nextInt(50);
+            ids.add((ts << 22) | random.nextInt(4096));
+        }
+        BloomFilter filter = BloomFilter.create(ids.size(), 0.01);
+        for (Long id : ids) {
+            filter.put(id);
+        }
+        for (Long id : ids) {
+            assertTrue(filter.mightContain(id));
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            long id = ((ts + 1 + random.nextInt(1_000_000)) << 22) | random.nextInt(4096);
+            if (filter.mightContain(id)) falsePositives++;
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.02, "false positive rate " + rate);
+    }
+}
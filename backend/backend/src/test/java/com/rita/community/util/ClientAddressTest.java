@@ -0,0 +1,31 @@
+package com.rita.community.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClientAddressTest {
+
+    @Test
+    void spoofedForwardedForDoesNotChangeResolvedAddress() {
+        // 经 nginx：客户端自带的 X-Forwarded-For 在前，代理追加的真实地址在最后；X-Real-IP 被代理覆盖
+        Set<String> resolved = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            String spoofed = "10.0." + (i / 256) + "." + (i % 256);
+            resolved.add(ClientAddress.resolve("203.0.113.7", spoofed + ", 203.0.113.7", "172.18.0.5"));
+            resolved.add(ClientAddress.resolve(null, spoofed + ", 203.0.113.7", "172.18.0.5"));
+        }
+        assertEquals(Set.of("203.0.113.7"), resolved);
+    }
+
+    @Test
+    void fallsBackToLastHopThenRemoteAddr() {
+        assertEquals("203.0.113.7", ClientAddress.resolve(" ", "203.0.113.7", "172.18.0.5"));
+        assertEquals("203.0.113.7", ClientAddress.resolve(null, "1.1.1.1,203.0.113.7 ", "172.18.0.5"));
+        assertEquals("172.18.0.5", ClientAddress.resolve(null, null, "172.18.0.5"));
+        assertEquals("172.18.0.5", ClientAddress.resolve(null, " , ", "172.18.0.5"));
+    }
+}
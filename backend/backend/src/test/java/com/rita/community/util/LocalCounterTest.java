@@ -0,0 +1,84 @@
+package com.rita.community.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalCounterTest {
+    private static final int THREADS = 8;
+    private static final int INCREMENTS_PER_THREAD = 200_000;
+    private static final long HOT_KEY = 1L;
+
+    @Test
+    void concurrentIncrementsSurviveConcurrentDrains() throws Exception {
+        LocalCounter<Long> counter = new LocalCounter<>();
+        Map<Long, Long> flushed = new HashMap<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        // 模拟定时刷出：写入期间不停地 drain，冷 key 会被反复移除又重建
+        Thread drainer = new Thread(() -> {
+            while (writing.get()) {
+                counter.drain().forEach((k, v) -> flushed.merge(k, v, Long::sum));
+            }
+        });
+        drainer.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                pool.execute(() -> {
+                    for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                        // 一半打在同一个爆款 key 上，其余分散
+                        counter.increment(i % 2 == 0 ? HOT_KEY : 100L + (i + thread) % 50);
+                    }
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+        writing.set(false);
+        drainer.join();
+
+        counter.drain().forEach((k, v) -> flushed.merge(k, v, Long::sum));
+
+        long total = 0L;
+        for (long v : flushed.values()) total += v;
+        assertEquals((long) THREADS * INCREMENTS_PER_THREAD, total);
+        assertEquals((long) THREADS * INCREMENTS_PER_THREAD / 2, (long) flushed.get(HOT_KEY));
+        assertEquals(0L, counter.get(HOT_KEY));
+    }
+
+    @Test
+    void getIncludesUndrainedAndFailedFlushesCanBeAddedBack() {
+        LocalCounter<Long> counter = new LocalCounter<>();
+        counter.increment(7L);
+        counter.increment(7L);
+        counter.add(8L, 5L);
+        assertEquals(2L, counter.get(7L));
+
+        Map<Long, Long> drained = counter.drain();
+        assertEquals(2L, (long) drained.get(7L));
+        assertEquals(5L, (long) drained.get(8L));
+        assertEquals(0L, counter.get(7L));
+
+        // 刷出失败：加回去，下一轮再刷
+        drained.forEach(counter::add);
+        counter.increment(7L);
+        assertEquals(3L, counter.get(7L));
+        assertEquals(Map.of(7L, 3L, 8L, 5L), counter.drain());
+        assertTrue(counter.drain().isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+package com.rita.community.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+    private static final int CALLERS = 64;
+
+    @Test
+    void parallelMissesRunTheLoaderOnce() throws Exception {
+        SingleFlight<Long, Object> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Object loaded = new Object();
+
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            results.add(pool.submit(() -> flight.execute(1L, () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                await(release);
+                return loaded;
+            })));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+
+            // 加载进行中到达的调用全部合并到同一次加载
+            CountDownLatch arrived = new CountDownLatch(CALLERS - 1);
+            for (int i = 1; i < CALLERS; i++) {
+                results.add(pool.submit(() -> {
+                    arrived.countDown();
+                    return flight.execute(1L, () -> {
+                        loads.incrementAndGet();
+                        return new Object();
+                    });
+                }));
+            }
+            assertTrue(arrived.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100); // 让等待方都进入 execute
+            release.countDown();
+
+            for (Future<Object> result : results) {
+                assertSame(loaded, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failureIsSharedAndNextCallLoadsAgain() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = pool.submit(() -> flight.execute("k", () -> {
+                loaderStarted.countDown();
+                await(release);
+                throw new IllegalStateException("db down");
+            }));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            Future<String> second = pool.submit(() -> flight.execute("k", () -> "unexpected"));
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> f : List.of(first, second)) {
+                Exception e = assertThrows(Exception.class, () -> f.get(5, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals("fresh", flight.execute("k", () -> "fresh"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}